@@ -0,0 +1,75 @@
+package maze.core;
+
+import static maze.core.Reference.assertShortest;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * The bidirectional search may stop only when no path through the open sets
+ * can be shorter than the best meeting, so its paths must be as short as the plain ones.
+ */
+class BidirectionalAStarTest {
+	private static final int SEEDS = 20;
+	private static final int QUERIES = 20;
+
+
+	@Test
+	void perfectMazes() throws InterruptedException {
+		check( 0 );
+	}
+
+
+	/**
+	 * The loops give many paths meeting in different cells.
+	 */
+	@Test
+	void mazesWithGates() throws InterruptedException {
+		check( 25 );
+	}
+
+
+	/**
+	 * The open fields are the worst case for the stopping rule.
+	 */
+	@Test
+	void testMaps() throws InterruptedException {
+		Grid grid = new Grid( 2 * TestMaps.MIN_SIZE, 2 * TestMaps.MIN_SIZE );
+		for( int map = 1; map <= TestMaps.COUNT; map++ ) {
+			Maze maze = TestMaps.build( grid, map, 2 );
+			SplittableRandom rand = new SplittableRandom( map );
+			PathFinder finder = new BidirectionalAStar( grid );
+			assertShortest( grid, maze.start, maze.goal, finder.findPath( maze.start, maze.goal, MazeListener.SILENT ),
+					"map " + map );
+			for( int query = 0; query < QUERIES; query++ ) {
+				int start = rand.nextInt( grid.size() );
+				int goal = rand.nextInt( grid.size() );
+				assertShortest( grid, start, goal, finder.findPath( start, goal, MazeListener.SILENT ),
+						"map " + map + ": " + start + " -> " + goal );
+			}
+		}
+	}
+
+
+	/**
+	 * @param percent the share of the possible gates to make
+	 */
+	private static void check( double percent ) throws InterruptedException {
+		for( int[] size : Reference.SIZES ) {
+			for( long seed = 0; seed < SEEDS; seed++ ) {
+				Grid grid = MazeEngine.generate( size[ 0 ], size[ 1 ], 0, seed ).grid;
+				SplittableRandom rand = new SplittableRandom( seed );
+				RandomMazeMaker.addExtraGatesPercent( grid, percent, rand, MazeListener.SILENT );
+				PathFinder finder = new BidirectionalAStar( grid );
+				for( int query = 0; query < QUERIES; query++ ) {
+					int start = rand.nextInt( grid.size() );
+					int goal = rand.nextInt( grid.size() );
+					assertShortest( grid, start, goal, finder.findPath( start, goal, MazeListener.SILENT ),
+							size[ 0 ] + "x" + size[ 1 ] + " seed " + seed + ": " + start + " -> " + goal );
+				}
+			}
+		}
+	}
+}
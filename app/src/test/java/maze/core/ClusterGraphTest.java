@@ -0,0 +1,79 @@
+package maze.core;
+
+import static maze.core.Reference.assertShortest;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * The abstract graph keeps only the shortest paths between the entrances of a cluster,
+ * so the hierarchical paths must still be as short as the plain ones, including the paths
+ * with the start and the goal inside one cluster and in the clusters cut by the border.
+ */
+class ClusterGraphTest {
+	private static final int[] CLUSTER_SIZES = { 2, 3, 8, ClusterGraph.DEFAULT_SIZE };
+	private static final int SEEDS = 10;
+	private static final int QUERIES = 20;
+
+
+	@Test
+	void perfectMazes() throws InterruptedException {
+		check( 0 );
+	}
+
+
+	/**
+	 * The loops make several entrances of a cluster reach each other.
+	 */
+	@Test
+	void mazesWithGates() throws InterruptedException {
+		check( 25 );
+	}
+
+
+	@Test
+	void testMaps() throws InterruptedException {
+		Grid grid = new Grid( 2 * TestMaps.MIN_SIZE + 3, 2 * TestMaps.MIN_SIZE + 1 );
+		for( int map = 1; map <= TestMaps.COUNT; map++ ) {
+			Maze maze = TestMaps.build( grid, map, 2 );
+			for( int clusterSize : CLUSTER_SIZES ) {
+				SplittableRandom rand = new SplittableRandom( map );
+				PathFinder finder = new ClusterGraph( grid, clusterSize );
+				assertShortest( grid, maze.start, maze.goal,
+						finder.findPath( maze.start, maze.goal, MazeListener.SILENT ), "map " + map );
+				for( int query = 0; query < QUERIES; query++ ) {
+					int start = rand.nextInt( grid.size() );
+					int goal = rand.nextInt( grid.size() );
+					assertShortest( grid, start, goal, finder.findPath( start, goal, MazeListener.SILENT ),
+							"map " + map + " cluster " + clusterSize + ": " + start + " -> " + goal );
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * @param percent the share of the possible gates to make
+	 */
+	private static void check( double percent ) throws InterruptedException {
+		for( int[] size : Reference.SIZES ) {
+			for( long seed = 0; seed < SEEDS; seed++ ) {
+				Grid grid = MazeEngine.generate( size[ 0 ], size[ 1 ], 0, seed ).grid;
+				SplittableRandom rand = new SplittableRandom( seed );
+				RandomMazeMaker.addExtraGatesPercent( grid, percent, rand, MazeListener.SILENT );
+				for( int clusterSize : CLUSTER_SIZES ) {
+					PathFinder finder = new ClusterGraph( grid, clusterSize );
+					for( int query = 0; query < QUERIES; query++ ) {
+						int start = rand.nextInt( grid.size() );
+						int goal = rand.nextInt( grid.size() );
+						assertShortest( grid, start, goal, finder.findPath( start, goal, MazeListener.SILENT ),
+								size[ 0 ] + "x" + size[ 1 ] + " seed " + seed + " cluster " + clusterSize + ": " +
+										start + " -> " + goal );
+					}
+				}
+			}
+		}
+	}
+}
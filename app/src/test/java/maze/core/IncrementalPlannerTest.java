@@ -0,0 +1,109 @@
+package maze.core;
+
+import static maze.core.Reference.assertShortest;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * After every wall edit the repaired path must be as short as a search from scratch finds,
+ * whether the edit opens a shortcut, cuts the path or disconnects the goal.
+ */
+class IncrementalPlannerTest {
+	private static final int SEEDS = 10;
+	private static final int EDITS = 200;
+
+
+	@Test
+	void perfectMazes() throws InterruptedException {
+		check( 0 );
+	}
+
+
+	@Test
+	void mazesWithGates() throws InterruptedException {
+		check( 25 );
+	}
+
+
+	/**
+	 * A search stopped by the listener leaves the estimates half-updated,
+	 * the next one must not rely on them.
+	 */
+	@Test
+	void stoppedSearch() throws InterruptedException {
+		Maze maze = MazeEngine.generate( 40, 40, 50, 1 );
+		Grid grid = maze.grid;
+		IncrementalPlanner planner = new IncrementalPlanner( grid, maze.start, maze.goal );
+		SplittableRandom rand = new SplittableRandom( 1 );
+		for( int edit = 0; edit < EDITS / 10; edit++ ) {
+			int[] events = { 0 };
+			int stopAfter = 1 + rand.nextInt( 100 );
+			MazeListener stopping = ( event, cell ) -> {
+				if( ++events[ 0 ] == stopAfter ) throw new InterruptedException();
+			};
+			try {
+				planner.findPath( stopping );
+			} catch( InterruptedException ignored ) {}
+			edit( grid, planner, rand );
+			assertShortest( grid, maze.start, maze.goal, planner.findPath( MazeListener.SILENT ), "edit " + edit );
+		}
+	}
+
+
+	@Test
+	void notAdjacentCells() {
+		Maze maze = MazeEngine.generate( 5, 5, 0, 1 );
+		IncrementalPlanner planner = new IncrementalPlanner( maze.grid, maze.start, maze.goal );
+		assertThrows( IllegalArgumentException.class, () -> planner.openWall( 4, 5, MazeListener.SILENT ) );
+		assertThrows( IllegalArgumentException.class, () -> planner.closeWall( 0, 6, MazeListener.SILENT ) );
+	}
+
+
+	/**
+	 * @param percent the share of the possible gates to make
+	 */
+	private static void check( double percent ) throws InterruptedException {
+		for( int[] size : Reference.SIZES ) {
+			for( long seed = 0; seed < SEEDS; seed++ ) {
+				Maze maze = MazeEngine.generate( size[ 0 ], size[ 1 ], 0, seed );
+				Grid grid = maze.grid;
+				SplittableRandom rand = new SplittableRandom( seed );
+				RandomMazeMaker.addExtraGatesPercent( grid, percent, rand, MazeListener.SILENT );
+				IncrementalPlanner planner = new IncrementalPlanner( grid, maze.start, maze.goal );
+				String name = size[ 0 ] + "x" + size[ 1 ] + " seed " + seed;
+				assertShortest( grid, maze.start, maze.goal, planner.findPath( MazeListener.SILENT ), name );
+				for( int edit = 0; edit < EDITS; edit++ ) {
+					assertShortest( grid, maze.start, maze.goal, edit( grid, planner, rand ), name + " edit " + edit );
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Toggles a random wall inside the grid.
+	 *
+	 * @return the path found after the edit
+	 */
+	private static int[] edit( Grid grid, IncrementalPlanner planner, SplittableRandom rand )
+			throws InterruptedException {
+		while( true ) {
+			int cell = rand.nextInt( grid.size() );
+			int direction = rand.nextBoolean() ? Grid.RIGHT : Grid.DOWN;
+			if( direction == Grid.RIGHT && grid.col( cell ) == grid.cols - 1 ||
+					direction == Grid.DOWN && grid.row( cell ) == grid.rows - 1 ) {
+				continue;
+			}
+			int neighbor = grid.neighbor( cell, direction );
+			if( grid.openNeighbor( cell, direction ) == -1 ) {
+				return planner.openWall( cell, neighbor, MazeListener.SILENT );
+			} else {
+				return planner.closeWall( neighbor, cell, MazeListener.SILENT );
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package maze.core;
+
+import static maze.core.Reference.openWalls;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * The extra gates are sampled without replacement, so exactly the requested number
+ * of walls must be opened as long as the maze has room for them.
+ */
+class RandomMazeMakerTest {
+	private static final int[] GATES = { 1, 7, 50 };
+	private static final int SEEDS = 20;
+
+
+	@Test
+	void exactGates() throws InterruptedException {
+		for( int[] size : new int[][] { { 31, 17 }, { 40, 40 }, { 65, 90 } } ) {
+			for( long seed = 0; seed < SEEDS; seed++ ) {
+				for( int gates : GATES ) {
+					Grid grid = MazeEngine.generate( size[ 0 ], size[ 1 ], 0, seed ).grid;
+					String name = size[ 0 ] + "x" + size[ 1 ] + " seed " + seed + " gates " + gates;
+					assertEquals( gates, addGates( grid, gates, seed, name ), name );
+				}
+			}
+		}
+	}
+
+
+	@Test
+	void generatedGates() {
+		for( long seed = 0; seed < SEEDS; seed++ ) {
+			for( int gates : GATES ) {
+				Grid grid = MazeEngine.generate( 40, 40, gates, seed ).grid;
+				assertEquals( grid.size() - 1 + gates, openWalls( grid ), "seed " + seed + " gates " + gates );
+			}
+		}
+	}
+
+
+	/**
+	 * Asking for more gates than possible makes all the possible ones and no more.
+	 */
+	@Test
+	void allGates() throws InterruptedException {
+		for( int[] size : Reference.SIZES ) {
+			for( long seed = 0; seed < SEEDS; seed++ ) {
+				Grid grid = MazeEngine.generate( size[ 0 ], size[ 1 ], 0, seed ).grid;
+				String name = size[ 0 ] + "x" + size[ 1 ] + " seed " + seed;
+				int added = addGates( grid, Integer.MAX_VALUE, seed, name );
+				if( grid.rows < 3 || grid.cols < 3 ) assertEquals( 0, added, name );
+				if( grid.rows > 30 && grid.cols > 30 ) assertTrue( added > grid.size() / 100, name );
+				assertEquals( 0, addGates( grid, Integer.MAX_VALUE, seed + 1, name ), name );
+			}
+		}
+	}
+
+
+	/**
+	 * Makes the gates checking that the returned number, the reported wall removals
+	 * and the walls actually opened agree.
+	 *
+	 * @return the number of the gates made
+	 */
+	private static int addGates( Grid grid, int gates, long seed, String name ) throws InterruptedException {
+		int before = openWalls( grid );
+		int[] removals = { 0 };
+		MazeListener counter = ( event, cell ) -> {
+			if( event == MazeEvent.REMOVE_RIGHT_WALL || event == MazeEvent.REMOVE_BOTTOM_WALL ) removals[ 0 ]++;
+		};
+		int added = RandomMazeMaker.addExtraGates( grid, gates, new SplittableRandom( seed ), counter );
+		assertEquals( added, removals[ 0 ], name );
+		assertEquals( before + added, openWalls( grid ), name );
+		return added;
+	}
+}
@@ -0,0 +1,87 @@
+package maze.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+
+/**
+ * The plain breadth-first search the solvers are checked against.
+ */
+abstract class Reference {
+
+	// Sides of the checked mazes: tiny, odd and not multiples of any cluster size
+	static final int[][] SIZES = { { 1, 2 }, { 2, 2 }, { 3, 3 }, { 7, 13 }, { 31, 17 }, { 40, 40 }, { 65, 90 } };
+
+
+	/**
+	 * @return the lengths of the shortest paths from the cell to all the cells,
+	 * -1 for the unreachable ones
+	 */
+	static int[] distances( Grid grid, int from ) {
+		int[] distance = new int[ grid.size() ];
+		Arrays.fill( distance, -1 );
+		distance[ from ] = 0;
+		int[] queue = new int[ grid.size() ];
+		int head = 0;
+		int tail = 0;
+		queue[ tail++ ] = from;
+		while( head < tail ) {
+			int cell = queue[ head++ ];
+			for( int direction = 0; direction < 4; direction++ ) {
+				int neighbor = grid.openNeighbor( cell, direction );
+				if( neighbor != -1 && distance[ neighbor ] == -1 ) {
+					distance[ neighbor ] = distance[ cell ] + 1;
+					queue[ tail++ ] = neighbor;
+				}
+			}
+		}
+		return distance;
+	}
+
+
+	/**
+	 * Asserts that the path goes through the open walls from the start to the goal
+	 * and is as short as the breadth-first search finds.
+	 *
+	 * @param path the found path, null if there is no path
+	 */
+	static void assertShortest( Grid grid, int start, int goal, int[] path, String message ) {
+		int distance = distances( grid, start )[ goal ];
+		if( distance == -1 ) {
+			assertNull( path, message );
+			return;
+		}
+		assertNotNull( path, message );
+		assertEquals( start, path[ 0 ], message );
+		assertEquals( goal, path[ path.length - 1 ], message );
+		for( int i = 1; i < path.length; i++ ) {
+			assertTrue( isOpen( grid, path[ i - 1 ], path[ i ] ), message + ": a wall at step " + i );
+		}
+		assertEquals( distance, path.length - 1, message );
+	}
+
+
+	/**
+	 * @return the number of the removed walls inside the grid
+	 */
+	static int openWalls( Grid grid ) {
+		int open = 0;
+		for( int cell = 0; cell < grid.size(); cell++ ) {
+			if( grid.openNeighbor( cell, Grid.RIGHT ) != -1 ) open++;
+			if( grid.openNeighbor( cell, Grid.DOWN ) != -1 ) open++;
+		}
+		return open;
+	}
+
+
+	private static boolean isOpen( Grid grid, int cell, int next ) {
+		for( int direction = 0; direction < 4; direction++ ) {
+			if( grid.openNeighbor( cell, direction ) == next ) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,25 @@
+package maze.bench;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The settings of all the benchmarks, inherited by them: the throughput in operations
+ * per second, measured in a fresh JVM after a warm-up.
+ * <p> The largest grids need a couple of gigabytes of heap. Run the benchmarks
+ * with <code>-prof gc</code> to see the allocation rate and the allocation per operation.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx2g" )
+public abstract class BenchmarkDefaults {
+}
@@ -0,0 +1,51 @@
+package maze.bench;
+
+import maze.core.Grid;
+import maze.core.MazeListener;
+import maze.core.RandomMazeMaker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Insertion of the extra gates into a perfect maze.
+ * <p> Each call gets a fresh copy of the maze, the copying is not measured.
+ */
+@State( Scope.Benchmark )
+public class GateBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	// Extra gates per 100 cells
+	@Param( { "1", "5" } )
+	public int density;
+
+	private Grid perfect;
+	private Grid grid;
+
+
+	@Setup
+	public void setUp() {
+		perfect = Mazes.generate( size, 0 );
+	}
+
+
+	@Setup( Level.Invocation )
+	public void copy() {
+		grid = new Grid( perfect );
+	}
+
+
+	@Benchmark
+	public int addGates() throws InterruptedException {
+		return RandomMazeMaker.addExtraGates( grid, Mazes.gatesFor( size, density ), new SplittableRandom( Mazes.SEED ),
+				MazeListener.SILENT );
+	}
+}
@@ -0,0 +1,53 @@
+package maze.bench;
+
+import maze.core.GenerationMode;
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeEngine;
+import maze.core.MazeListener;
+import maze.core.PathFinder;
+import maze.core.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Generation of perfect mazes with each of the algorithms on the calling thread,
+ * and the cost of solving the mazes of each algorithm with A* corner to corner.
+ */
+@State( Scope.Benchmark )
+public class GenerationBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	@Param
+	public GenerationMode mode;
+
+	private Maze maze;
+	private PathFinder finder;
+
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		maze = MazeEngine.generate( new Grid( size, size ), mode, 0, Mazes.SEED, MazeListener.SILENT );
+		finder = SearchMode.A_STAR.create( maze.grid );
+		finder.findPath( 0, maze.grid.size() - 1, MazeListener.SILENT );
+		Mazes.note( "%s maze, A* corner to corner: %s", mode, finder.stats() );
+	}
+
+
+	@Benchmark
+	public Maze generate() throws InterruptedException {
+		return MazeEngine.generate( new Grid( size, size ), mode, 0, Mazes.SEED, MazeListener.SILENT );
+	}
+
+
+	@Benchmark
+	public int[] solve() throws InterruptedException {
+		return finder.findPath( 0, maze.grid.size() - 1, MazeListener.SILENT );
+	}
+}
@@ -0,0 +1,45 @@
+package maze.bench;
+
+import maze.core.Grid;
+import maze.core.MazeEngine;
+
+
+/**
+ * The mazes shared by the benchmarks.
+ */
+abstract class Mazes {
+	static final long SEED = 42;
+
+	// Random queries in a batch
+	static final int BATCH_SIZE = 64;
+
+	// Scale 1 of the test maps fits a grid of this size
+	static final int TEST_MAP_BASE = 30;
+
+
+	/**
+	 * Generates a square maze with the recursive backtracker.
+	 *
+	 * @param size    the number of cells on a side
+	 * @param density the number of extra gates per 100 cells
+	 */
+	static Grid generate( int size, int density ) {
+		return MazeEngine.generate( size, size, gatesFor( size, density ), SEED ).grid;
+	}
+
+
+	/**
+	 * @return the number of extra gates for the grid of <code>size * size</code> cells
+	 */
+	static int gatesFor( int size, int density ) {
+		return ( int ) ( ( long ) size * size * density / 100 );
+	}
+
+
+	/**
+	 * Prints a note about the trial next to the JMH output, such as the size of a structure.
+	 */
+	static void note( String format, Object... args ) {
+		System.out.printf( "# " + format + "%n", args );
+	}
+}
@@ -0,0 +1,53 @@
+package maze.bench;
+
+import maze.core.GenerationMode;
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Generation with the algorithms which can be split between threads:
+ * the tiled backtracker and the row generators. The number of threads
+ * shows the scaling, pass <code>-p threads=...</code> for the number of the processors.
+ */
+@State( Scope.Benchmark )
+public class ParallelGenerationBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	@Param( { "BACKTRACKER", "SIDEWINDER", "BINARY_TREE" } )
+	public GenerationMode mode;
+
+	@Param( { "1", "2", "4", "8" } )
+	public int threads;
+
+	private ForkJoinPool pool;
+
+
+	@Setup
+	public void setUp() {
+		pool = new ForkJoinPool( threads );
+	}
+
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+
+	@Benchmark
+	public Maze generate() {
+		return MazeEngine.generate( new Grid( size, size ), mode, 0, Mazes.SEED, pool );
+	}
+}
@@ -0,0 +1,73 @@
+package maze.bench;
+
+import maze.core.BatchSolver;
+import maze.core.DistanceField;
+import maze.core.Grid;
+import maze.core.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * A batch of random queries and the distance field of a goal on several threads,
+ * in a maze with 1 extra gate per 100 cells. The number of threads shows the scaling,
+ * pass <code>-p threads=...</code> for the number of the processors.
+ */
+@State( Scope.Benchmark )
+public class ParallelSolveBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	@Param( { "1", "2", "4", "8" } )
+	public int threads;
+
+	private int[] starts;
+	private int[] goals;
+	private BatchSolver solver;
+	private ExecutorService executor;
+	private ForkJoinPool pool;
+	private DistanceField field;
+
+
+	@Setup
+	public void setUp() {
+		Grid grid = Mazes.generate( size, 1 );
+		SplittableRandom rand = new SplittableRandom( Mazes.SEED );
+		starts = rand.ints( Mazes.BATCH_SIZE, 0, grid.size() ).toArray();
+		goals = rand.ints( Mazes.BATCH_SIZE, 0, grid.size() ).toArray();
+		solver = new BatchSolver( grid, SearchMode.JUNCTION_GRAPH );
+		executor = Executors.newFixedThreadPool( threads );
+		pool = new ForkJoinPool( threads );
+		field = new DistanceField( grid, grid.size() - 1, pool );
+	}
+
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdown();
+		pool.shutdown();
+	}
+
+
+	@Benchmark
+	public int[][] batch() throws InterruptedException {
+		return solver.solve( starts, goals, executor, threads );
+	}
+
+
+	@Benchmark
+	public DistanceField field() {
+		field.recompute();
+		return field;
+	}
+}
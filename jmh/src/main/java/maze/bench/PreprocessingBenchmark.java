@@ -0,0 +1,84 @@
+package maze.bench;
+
+import maze.core.BitParallelBfs;
+import maze.core.ClusterGraph;
+import maze.core.DistanceField;
+import maze.core.Grid;
+import maze.core.Landmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * The structures built for a grid ahead of the queries: the landmark table,
+ * the cluster graph of the hierarchical mode and the distances from a corner,
+ * and the path queries answered by a distance field.
+ * The sizes of the structures are printed before the measurement.
+ */
+@State( Scope.Benchmark )
+public class PreprocessingBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	// Extra gates per 100 cells
+	@Param( { "0", "1", "5" } )
+	public int density;
+
+	private Grid grid;
+	private BitParallelBfs bfs;
+	private int[] distance;
+	private DistanceField field;
+	private int[] starts;
+	private int next;
+
+
+	@Setup
+	public void setUp() {
+		grid = Mazes.generate( size, density );
+		bfs = new BitParallelBfs( grid );
+		distance = new int[ grid.size() ];
+		field = new DistanceField( grid, grid.size() - 1, ForkJoinPool.commonPool() );
+		starts = new SplittableRandom( Mazes.SEED ).ints( Mazes.BATCH_SIZE, 0, grid.size() ).toArray();
+
+		ClusterGraph graph = new ClusterGraph( grid, ClusterGraph.DEFAULT_SIZE );
+		// Flat A* keeps the costs, the parents, the stamps and the four arrays of the heap per cell
+		Mazes.note( "%d landmarks %.1f MB, clusters: %d nodes, %d edges, %.1f MB, flat A* %.1f MB, field %.1f MB",
+				Landmarks.DEFAULT_COUNT, new Landmarks( grid, Landmarks.DEFAULT_COUNT ).bytes() / 1e6,
+				graph.nodes(), graph.edges(), graph.bytes() / 1e6, 7.0 * Integer.BYTES * grid.size() / 1e6,
+				field.bytes() / 1e6 );
+	}
+
+
+	@Benchmark
+	public Landmarks landmarks() {
+		return new Landmarks( grid, Landmarks.DEFAULT_COUNT );
+	}
+
+
+	@Benchmark
+	public ClusterGraph clusters() {
+		return new ClusterGraph( grid, ClusterGraph.DEFAULT_SIZE );
+	}
+
+
+	/**
+	 * Takes as long as one or two A* queries instead of one query per cell.
+	 */
+	@Benchmark
+	public int distances() {
+		return bfs.distances( 0, distance );
+	}
+
+
+	@Benchmark
+	public int[] fieldPath() {
+		return field.path( starts[ next++ % starts.length ] );
+	}
+}
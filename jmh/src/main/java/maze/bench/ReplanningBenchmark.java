@@ -0,0 +1,62 @@
+package maze.bench;
+
+import maze.core.Grid;
+import maze.core.IncrementalPlanner;
+import maze.core.MazeListener;
+import maze.core.PathFinder;
+import maze.core.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Opens a random inner wall, finds the path, closes the wall and finds the path again,
+ * by repairing the incremental search and by A* from scratch.
+ */
+@State( Scope.Benchmark )
+public class ReplanningBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	private Grid grid;
+	private int[] walls;
+	private int next;
+	private IncrementalPlanner planner;
+	private PathFinder finder;
+
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		grid = Mazes.generate( size, 1 );
+		walls = new SplittableRandom( Mazes.SEED ).ints( 0, grid.size() )
+				.filter( cell -> grid.col( cell ) < grid.cols - 1 && grid.hasRightWall( cell ) )
+				.limit( Mazes.BATCH_SIZE ).toArray();
+		planner = new IncrementalPlanner( grid, 0, grid.size() - 1 );
+		planner.findPath( MazeListener.SILENT );
+		finder = SearchMode.A_STAR.create( grid );
+	}
+
+
+	@Benchmark
+	public int[] incremental() throws InterruptedException {
+		int cell = walls[ next++ % walls.length ];
+		planner.openWall( cell, cell + 1, MazeListener.SILENT );
+		return planner.closeWall( cell, cell + 1, MazeListener.SILENT );
+	}
+
+
+	@Benchmark
+	public int[] fromScratch() throws InterruptedException {
+		int cell = walls[ next++ % walls.length ];
+		grid.removeRightWall( cell );
+		finder.findPath( 0, grid.size() - 1, MazeListener.SILENT );
+		grid.addRightWall( cell );
+		return finder.findPath( 0, grid.size() - 1, MazeListener.SILENT );
+	}
+}
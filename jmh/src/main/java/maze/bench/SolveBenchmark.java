@@ -0,0 +1,48 @@
+package maze.bench;
+
+import maze.core.Grid;
+import maze.core.MazeListener;
+import maze.core.PathFinder;
+import maze.core.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Corner to corner queries in the random mazes with each of the search modes.
+ * The counters of the search are printed before the measurement.
+ */
+@State( Scope.Benchmark )
+public class SolveBenchmark extends BenchmarkDefaults {
+
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	// Extra gates per 100 cells
+	@Param( { "0", "1", "5" } )
+	public int density;
+
+	@Param
+	public SearchMode mode;
+
+	private Grid grid;
+	private PathFinder finder;
+
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		grid = Mazes.generate( size, density );
+		finder = mode.create( grid );
+		finder.findPath( 0, grid.size() - 1, MazeListener.SILENT );
+		Mazes.note( "%s: %s", mode, finder.stats() );
+	}
+
+
+	@Benchmark
+	public int[] solve() throws InterruptedException {
+		return finder.findPath( 0, grid.size() - 1, MazeListener.SILENT );
+	}
+}
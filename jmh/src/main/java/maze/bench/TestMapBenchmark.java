@@ -0,0 +1,49 @@
+package maze.bench;
+
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeListener;
+import maze.core.PathFinder;
+import maze.core.SearchMode;
+import maze.core.TestMaps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * The open test maps scaled to the grid, the worst cases for the open set.
+ */
+@State( Scope.Benchmark )
+public class TestMapBenchmark extends BenchmarkDefaults {
+
+	// At least TestMaps.MIN_SIZE
+	@Param( { "50", "1000", "4000" } )
+	public int size;
+
+	@Param( { "1", "2", "3" } )
+	public int map;
+
+	@Param
+	public SearchMode mode;
+
+	private Maze maze;
+	private PathFinder finder;
+
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		maze = TestMaps.build( new Grid( size, size ), map, Math.max( 1, size / Mazes.TEST_MAP_BASE ) );
+		finder = mode.create( maze.grid );
+		finder.findPath( maze.start, maze.goal, MazeListener.SILENT );
+		Mazes.note( "%s: %s", mode, finder.stats() );
+	}
+
+
+	@Benchmark
+	public int[] solve() throws InterruptedException {
+		return finder.findPath( maze.start, maze.goal, MazeListener.SILENT );
+	}
+}
@@ -1,159 +1,118 @@
 package maze;
 
+import maze.core.Grid;
+
 import java.awt.*;
 
 
 /**
  * The Cell class.
- * <p> Contains all the data needed to calculate and render a cell.
+ * <p> Renders a single cell of the packed <code>Grid</code> with its visual state
+ * and describes the states and the directions a cell may have.
  */
-class Cell implements Comparable<Cell> {
-
-	// Public changeable data
-	Position pos;
-	State state = State.BLOCK;
-	boolean topWall = true;
-	boolean rightWall = true;
-	boolean bottomWall = true;
-	boolean leftWall = true;
-
-	// A*
-	int g = 0; // Movement cost
-	int h = 0; // Heuristic cost estimate
-	int f = g + h;
-	Cell parent = null;
-
-	// Path reconstruction
-	Direction dirStart = null;
-	Direction dirGoal = null;
-
-	// Used when drawing
+abstract class Cell {
+
+	// The default size, used when drawing
 	static final int WIDTH = 20;
 	static final int HEIGHT = 20;
-	private boolean sharpCorners = true;
-	private boolean outline = false;
-	private final int x; // Just for short:
-	private final int y; // not to calculate them each time
+
+	// Shared paint resources, not to allocate them for each cell
+	private static final Stroke WALL_STROKE = new BasicStroke( 1 );
+	private static final Stroke PATH_STROKE = new BasicStroke( 3 );
+	private static final Color START_COLOR = new Color( 0, 200, 0 );
+	private static final Color GOAL_COLOR = new Color( 255, 100, 0 );
+	private static final Color OPEN_COLOR = new Color( 152, 255, 152 );
+	private static final Color CLOSED_COLOR = new Color( 175, 238, 238 );
+	private static final Color BACKWARD_OPEN_COLOR = new Color( 255, 240, 150 );
+	private static final Color BACKWARD_CLOSED_COLOR = new Color( 220, 205, 255 );
+	private static final Color OUTLINE_COLOR = new Color( 200, 200, 200 );
+	static final Color PATH_COLOR = GOAL_COLOR;
 
 
 	/**
-	 * Creates a new cell in the specified position.
+	 * Paints a cell using the grid data.
+	 * <p> A cell takes <code>size + 1</code> pixels, its walls are shared with the neighbours.
 	 *
-	 * @param row the row number (between 0 (inclusive) and ROW (exclusive))
-	 * @param col the column number (between 0 (inclusive) and COL (exclusive))
+	 * @param g       parent's Graphics context
+	 * @param grid    the packed maze model
+	 * @param states  visual states of the cells
+	 * @param cell    the index of the cell to be painted
+	 * @param testMap true if the cell belongs to a test map rather than a random maze,
+	 *                so its outline is drawn instead of the sharp corners
+	 * @param x       the left side of the cell
+	 * @param y       the top side of the cell
+	 * @param size    the width and the height of the cell without the walls
 	 */
-	Cell( int row, int col ) {
-		pos = new Position( row, col );
-		x = pos.col * ( WIDTH + 1 );
-		y = pos.row * ( HEIGHT + 1 );
-	}
+	static void paint( Graphics g, Grid grid, CellStates states, int cell, boolean testMap, int x, int y, int size ) {
+		Graphics2D g2 = ( Graphics2D ) g;
+		g2.setStroke( WALL_STROKE );
 
+		g.setColor( color( states.get( cell ) ) );
+		g.fillRect( x, y, size + 1, size + 1 );
 
-	/**
-	 * Creates a new cell with the specified state and position.
-	 *
-	 * @param row   the row number (between 0 (inclusive) and ROW (exclusive))
-	 * @param col   the column number (between 0 (inclusive) and COL (exclusive))
-	 * @param state cell state
-	 */
-	Cell( int row, int col, State state ) {
-		this( row, col );
-		this.state = state;
-
-		// If we are here - it isn't a random maze
-		// so let's improve visual perception
-		sharpCorners = false;
-		outline = true;
-
-		if( state == State.PASSAGE ) {
-			topWall = false;
-			rightWall = false;
-			bottomWall = false;
-			leftWall = false;
+		if( testMap ) {
+			g.setColor( OUTLINE_COLOR );
+			g.drawRect( x, y, size, size );
 		}
+
+		g.setColor( Color.BLACK );
+		if( grid.hasTopWall( cell ) ) g.drawLine( x, y, x + size, y );
+		if( grid.hasRightWall( cell ) ) g.drawLine( x + size, y, x + size, y + size );
+		if( grid.hasBottomWall( cell ) ) g.drawLine( x + size, y + size, x, y + size );
+		if( grid.hasLeftWall( cell ) ) g.drawLine( x, y + size, x, y );
+		if( !testMap ) {
+			g.fillRect( x, y, 1, 1 );
+			g.fillRect( x + size, y, 1, 1 );
+			g.fillRect( x, y + size, 1, 1 );
+			g.fillRect( x + size, y + size, 1, 1 );
+		}
+
+		if( !states.hasDirections( cell ) ) return;
+
+		int half = size / 2;
+		g.setColor( PATH_COLOR );
+		g2.setStroke( ( size >= WIDTH / 2 ) ? PATH_STROKE : WALL_STROKE );
+		if( states.hasDirection( cell, Direction.LEFT ) )
+			g.drawLine( x, y + half, x + half, y + half );
+		if( states.hasDirection( cell, Direction.RIGHT ) )
+			g.drawLine( x + half, y + half, x + size, y + half );
+		if( states.hasDirection( cell, Direction.UP ) )
+			g.drawLine( x + half, y, x + half, y + half );
+		if( states.hasDirection( cell, Direction.DOWN ) )
+			g.drawLine( x + half, y + half, x + half, y + size );
 	}
 
 
 	/**
-	 * Paints a cell using the internal data.
-	 *
-	 * @param g parent's Graphics context
+	 * @return the fill color of a cell in the state
 	 */
-	void paint( Graphics g ) {
-		Graphics2D g2 = ( Graphics2D ) g;
-		g2.setStroke( new BasicStroke( 1 ) );
-
+	static Color color( State state ) {
 		switch( state ) {
 			case BLOCK:
-				g.setColor( Color.LIGHT_GRAY );
-				break;
+				return Color.LIGHT_GRAY;
 			case MARKED:
-				g.setColor( Color.PINK );
-				break;
+				return Color.PINK;
 			case PASSAGE:
-				g.setColor( Color.WHITE );
-				break;
+				return Color.WHITE;
 			case START:
-				g.setColor( new Color( 0, 200, 0 ) );
-				break;
+				return START_COLOR;
 			case GOAL:
 			case ACHIEVED_GOAL:
-				g.setColor( new Color( 255, 100, 0 ) );
-				break;
+				return GOAL_COLOR;
 			case A_OPEN:
-				g.setColor( new Color( 152, 255, 152 ) );
-				break;
+				return OPEN_COLOR;
 			case A_CLOSED:
-				g.setColor( new Color( 175, 238, 238 ) );
-				break;
+				return CLOSED_COLOR;
+			case B_OPEN:
+				return BACKWARD_OPEN_COLOR;
+			case B_CLOSED:
+				return BACKWARD_CLOSED_COLOR;
 			default:
-				g.setColor( Color.CYAN );
-				break;
-		}
-		g.fillRect( x, y, WIDTH + 1, HEIGHT + 1 );
-
-		if( outline ) {
-			g.setColor( new Color( 200, 200, 200 ) );
-			g.drawRect( x, y, WIDTH, HEIGHT );
+				return Color.CYAN;
 		}
-
-		g.setColor( Color.BLACK );
-		if( topWall ) g.drawLine( x, y, x + WIDTH, y );
-		if( rightWall ) g.drawLine( x + WIDTH, y, x + WIDTH, y + HEIGHT );
-		if( bottomWall ) g.drawLine( x + WIDTH, y + HEIGHT, x, y + HEIGHT );
-		if( leftWall ) g.drawLine( x, y + HEIGHT, x, y );
-		if( sharpCorners ) {
-			g.fillRect( x, y, 1, 1 );
-			g.fillRect( x + WIDTH, y, 1, 1 );
-			g.fillRect( x, y + HEIGHT, 1, 1 );
-			g.fillRect( x + WIDTH, y + HEIGHT, 1, 1 );
-		}
-
-		if( dirGoal == null && dirStart == null ) return;
-
-		g.setColor( new Color( 255, 100, 0 ) );
-		g2.setStroke( new BasicStroke( 3 ) );
-		if( dirGoal == Direction.LEFT || dirStart == Direction.LEFT )
-			g.drawLine( x, y + HEIGHT / 2, x + WIDTH / 2, y + HEIGHT / 2 );
-		if( dirGoal == Direction.RIGHT || dirStart == Direction.RIGHT )
-			g.drawLine( x + WIDTH / 2, y + HEIGHT / 2, x + WIDTH, y + HEIGHT / 2 );
-		if( dirGoal == Direction.UP || dirStart == Direction.UP )
-			g.drawLine( x + WIDTH / 2, y, x + WIDTH / 2, y + HEIGHT / 2 );
-		if( dirGoal == Direction.DOWN || dirStart == Direction.DOWN )
-			g.drawLine( x + WIDTH / 2, y + HEIGHT / 2, x + WIDTH / 2, y + HEIGHT );
 	}
 
 
-	/**
-	 * Used when sorting in PriorityQueue (open set in A*).
-	 */
-	@Override
-	public int compareTo( Cell other ) {
-		if( this.f > other.f ) return 1;
-		if( this.f < other.f ) return -1;
-		return 0;
-	}
-
 	/**
 	 * Determines the state of a cell which is used during the visualisation.
 	 * <p> <code>BLOCK</code> by default - a blocked cell with all the walls.
@@ -165,9 +124,11 @@ class Cell implements Comparable<Cell> {
 	 * <p> <code>ACHIEVED_GOAL</code> - the reached destination of the maze.
 	 * <p> <code>A_OPEN</code> - a cell in the open set (A*).
 	 * <p> <code>A_CLOSED</code> - a cell in the closed set (A*).
+	 * <p> <code>B_OPEN</code> - a cell in the open set of the backward search (bidirectional A*).
+	 * <p> <code>B_CLOSED</code> - a cell in the closed set of the backward search.
 	 */
 	static enum State {
-		BLOCK, MARKED, PASSAGE, START, GOAL, ACHIEVED_GOAL, A_OPEN, A_CLOSED
+		BLOCK, MARKED, PASSAGE, START, GOAL, ACHIEVED_GOAL, A_OPEN, A_CLOSED, B_OPEN, B_CLOSED
 	}
 
 
@@ -0,0 +1,136 @@
+package maze;
+
+import java.util.Arrays;
+
+import maze.core.MazeEvent;
+
+
+/**
+ * The visual state of every cell of the maze.
+ * <p> Keeps one byte per cell: the low nibble is the <code>Cell.State</code>,
+ * the high nibble is a set of <code>Cell.Direction</code> bits of the found path.
+ * <p> Cells are addressed by the same indexes as in the <code>Grid</code>.
+ */
+final class CellStates {
+	private static final int STATE_MASK = 0x0F;
+	private static final int DIR_SHIFT = 4;
+	private static final Cell.State[] STATES = Cell.State.values();
+
+	private final byte[] states;
+
+
+	/**
+	 * Creates states for the specified number of cells, all in the <code>BLOCK</code> state.
+	 *
+	 * @param size the total number of cells
+	 */
+	CellStates( int size ) {
+		states = new byte[ size ];
+		fill( Cell.State.BLOCK );
+	}
+
+
+	Cell.State get( int cell ) {
+		return STATES[ states[ cell ] & STATE_MASK ];
+	}
+
+
+	/**
+	 * Changes the state of the cell keeping its path directions.
+	 */
+	void set( int cell, Cell.State state ) {
+		states[ cell ] = ( byte ) ( ( states[ cell ] & ~STATE_MASK ) | state.ordinal() );
+	}
+
+
+	/**
+	 * Sets the same state to all the cells and clears all the path directions.
+	 */
+	void fill( Cell.State state ) {
+		Arrays.fill( states, ( byte ) state.ordinal() );
+	}
+
+
+	boolean hasDirection( int cell, Cell.Direction dir ) {
+		return ( states[ cell ] & ( 1 << ( DIR_SHIFT + dir.ordinal() ) ) ) != 0;
+	}
+
+
+	boolean hasDirections( int cell ) {
+		return ( states[ cell ] & ~STATE_MASK ) != 0;
+	}
+
+
+	void addDirection( int cell, Cell.Direction dir ) {
+		states[ cell ] |= 1 << ( DIR_SHIFT + dir.ordinal() );
+	}
+
+
+	/**
+	 * Changes the states the way the event of the maze engine is shown.
+	 * <p> The start and the goal keep their states while the search reaches them,
+	 * except the goal found by the forward search. The wall removals don't change any state.
+	 *
+	 * @param event     what has happened
+	 * @param cell      the index of the cell in the grid
+	 * @param start     the start cell of the search
+	 * @param goal      the goal cell of the search
+	 * @param pathStage the previous cell of the found path, used by <code>PATH</code>
+	 */
+	void apply( MazeEvent event, int cell, int start, int goal, int pathStage ) {
+		switch( event ) {
+			case MARK:
+				set( cell, Cell.State.MARKED );
+				break;
+			case CARVE:
+				set( cell, Cell.State.PASSAGE );
+				break;
+			case OPEN:
+				set( cell, ( cell == goal ) ? Cell.State.ACHIEVED_GOAL : Cell.State.A_OPEN );
+				break;
+			case CLOSE:
+				if( cell != start ) set( cell, Cell.State.A_CLOSED );
+				break;
+			case OPEN_BACKWARD:
+				if( cell != start ) set( cell, Cell.State.B_OPEN );
+				break;
+			case CLOSE_BACKWARD:
+				if( cell != goal ) set( cell, Cell.State.B_CLOSED );
+				break;
+			case PATH:
+				if( cell != goal ) addPathStep( pathStage, cell );
+				break;
+			case START:
+				set( cell, Cell.State.START );
+				break;
+			case GOAL:
+				set( cell, Cell.State.GOAL );
+				break;
+			default:
+				break;
+		}
+	}
+
+
+	/**
+	 * Marks the directions between two adjacent cells of the found path.
+	 *
+	 * @param stage  the cell closer to the goal
+	 * @param parent the cell closer to the start
+	 */
+	void addPathStep( int stage, int parent ) {
+		if( parent == stage - 1 ) {
+			addDirection( parent, Cell.Direction.RIGHT );
+			addDirection( stage, Cell.Direction.LEFT );
+		} else if( parent == stage + 1 ) {
+			addDirection( parent, Cell.Direction.LEFT );
+			addDirection( stage, Cell.Direction.RIGHT );
+		} else if( parent < stage ) {
+			addDirection( parent, Cell.Direction.DOWN );
+			addDirection( stage, Cell.Direction.UP );
+		} else {
+			addDirection( parent, Cell.Direction.UP );
+			addDirection( stage, Cell.Direction.DOWN );
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package maze;
+
+
+/**
+ * The set of cells changed since the last frame.
+ * <p> Keeps a bit per cell not to queue the same cell twice
+ * and the queue of the changed cells not to scan the whole grid.
+ * <p> The queue is limited: when there are more changes than <code>CAPACITY</code>,
+ * redrawing all the shown cells is cheaper than redrawing them one by one,
+ * so the set overflows into the whole grid being dirty.
+ * <p> The cells are added by the thread running the algorithm and taken
+ * by the painting one, so all the calls must be synchronized on this object.
+ */
+final class DirtyCells {
+	static final int CAPACITY = 1 << 16;
+
+	private final long[] marked;
+	private final int[] queue;
+	private int size = 0;
+	private boolean all = true;
+
+
+	/**
+	 * Creates a new set with all the cells being dirty.
+	 *
+	 * @param cells the total number of cells
+	 */
+	DirtyCells( int cells ) {
+		marked = new long[ ( cells + 63 ) >>> 6 ];
+		queue = new int[ Math.min( cells, CAPACITY ) ];
+	}
+
+
+	/**
+	 * @return true if the cell has been added or the whole grid has become dirty,
+	 * false if it is already dirty
+	 */
+	boolean add( int cell ) {
+		if( all || ( marked[ cell >>> 6 ] & ( 1L << cell ) ) != 0 ) return false;
+		if( size == queue.length ) {
+			addAll();
+			return true;
+		}
+		marked[ cell >>> 6 ] |= 1L << cell;
+		queue[ size++ ] = cell;
+		return true;
+	}
+
+
+	/**
+	 * Marks the whole grid as dirty.
+	 */
+	void addAll() {
+		clear();
+		all = true;
+	}
+
+
+	/**
+	 * @return true if the whole grid is dirty
+	 */
+	boolean isAll() {
+		return all;
+	}
+
+
+	int size() {
+		return size;
+	}
+
+
+	/**
+	 * @return the i-th dirty cell in the order they were added
+	 */
+	int get( int i ) {
+		return queue[ i ];
+	}
+
+
+	/**
+	 * Makes all the cells clean.
+	 */
+	void clear() {
+		for( int i = 0; i < size; i++ ) {
+			marked[ queue[ i ] >>> 6 ] &= ~( 1L << queue[ i ] );
+		}
+		size = 0;
+		all = false;
+	}
+}
@@ -1,60 +1,364 @@
 package maze;
 
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeEngine;
+import maze.core.MazeEvent;
+import maze.core.MazeFile;
+import maze.core.MazeListener;
+import maze.core.TestMaps;
+import maze.core.TraceReader;
+
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
 
 
 /**
  * The labyrinth itself.
- * <p> Contains cell array and initializes their rendering.
+ * <p> Contains the packed cell grid with the visual state of its cells
+ * and initializes their rendering.
+ * <p> The field is shown in a scrollable viewport and can be zoomed. At the near zoom
+ * levels only the visible cells are drawn into a backbuffer of the size of the viewport.
+ * Only the visible cells changed since the last frame are redrawn, and only their area
+ * of the screen is repainted. At the far levels the <code>Overview</code> of the maze
+ * is drawn instead. So the cost of a frame depends on the size of the viewport and
+ * the number of changes, not on the maze size.
+ * <p> Runs the headless maze engine and draws its progress.
  * <p> Responds to the main window calls.
  */
-class Field extends JPanel implements Runnable {
+class Field extends JPanel implements Runnable, MazeListener {
+
+	// The distance between the cells at the near zoom levels, the next levels are overview
+	private static final int[] PITCHES = { Cell.WIDTH + 1, 11, 6 };
+
+	// The viewport the maze is fitted in at the start
+	static final int VIEW_SIZE = 50 * ( Cell.WIDTH + 1 );
+
+	// The size of the maze at the farthest zoom level
+	private static final int MIN_VIEW_SIZE = 256;
+
 	final MainWindow.Callback mainWndCallback;
-	final Cell cells[][];
-	static int ROW;
-	static int COL;
+	Grid grid;
+	CellStates states;
+	private DirtyCells dirty;
+	private Overview overview;
+	private volatile int zoom;
+
+	// The area of the field drawn in the backbuffer and the cells in it
+	private BufferedImage backbuffer = null;
+	private final Rectangle painted = new Rectangle();
+	private int paintedZoom = -1;
+	private volatile Rectangle visibleCells;
 
-	Position start = null;
-	Position goal = null;
+	int start = -1;
+	int goal = -1;
+	private long seed = 0;
+	private final SplittableRandom seeds;
 
+	private boolean testMap = false;
+	private int pathStage = -1;
+	private int expanded = 0;
 	private FState fState = FState.GENERATION;
 	private Thread thread = new Thread( this );
+	private TraceReader trace = null;
 
 
 	/**
-	 * Creates a new Field with cell array initialised by the default cell's state.
+	 * Creates a new Field with the grid initialised by the default cell's state.
 	 *
 	 * @param totalRow the total number of rows in the maze
 	 * @param totalCol the total number of columns in the maze
+	 * @param seed     the seed of the seeds of the generated mazes,
+	 *                 so the same seed gives the same sequence of mazes
 	 * @param callback object for communication with the main window
 	 */
-	Field( int totalRow, int totalCol, MainWindow.Callback callback ) {
+	Field( int totalRow, int totalCol, long seed, MainWindow.Callback callback ) {
+		if( !canShow( totalRow, totalCol ) ) {
+			throw new IllegalArgumentException( "Too large maze to be shown: " + totalRow + "x" + totalCol );
+		}
 		mainWndCallback = callback;
-		ROW = totalRow;
-		COL = totalCol;
-		cells = new Cell[ ROW ][ COL ];
-		for( int row = 0; row < ROW; row++ ) {
-			for( int col = 0; col < COL; col++ ) {
-				cells[ row ][ col ] = new Cell( row, col );
+		seeds = new SplittableRandom( seed );
+		setGrid( new Grid( totalRow, totalCol ), VIEW_SIZE, VIEW_SIZE );
+
+		// Ctrl + wheel zooms, the plain wheel scrolls the viewport
+		addMouseWheelListener( e -> {
+			if( e.isControlDown() ) {
+				zoom( e.getWheelRotation(), e.getPoint() );
+			} else if( getParent() != null ) {
+				getParent().dispatchEvent( SwingUtilities.convertMouseEvent( this, e, getParent() ) );
 			}
+		} );
+	}
+
+
+	/**
+	 * @return true if the maze of the size can be shown at every zoom level
+	 */
+	static boolean canShow( int rows, int cols ) {
+		return rows > 0 && cols > 0 && ( long ) rows * cols <= Integer.MAX_VALUE &&
+				Math.max( rows, cols ) <= Integer.MAX_VALUE / PITCHES[ 0 ];
+	}
+
+
+	/**
+	 * Replaces the grid with a new one with all the cells in the <code>BLOCK</code> state
+	 * and zooms the field to fit the maze in the view.
+	 * <p> The thread running the algorithm must have been stopped.
+	 */
+	private void setGrid( Grid grid, int viewWidth, int viewHeight ) {
+		this.grid = grid;
+		states = new CellStates( grid.size() );
+		dirty = new DirtyCells( grid.size() );
+		overview = new Overview( grid.rows, grid.cols );
+		visibleCells = new Rectangle( 0, 0, grid.cols, grid.rows );
+		backbuffer = null;
+		paintedZoom = -1;
+
+		int zoom = 0;
+		while( zoom < maxZoom() && ( grid.cols * scale( zoom ) > viewWidth || grid.rows * scale( zoom ) > viewHeight ) ) {
+			zoom++;
 		}
+		this.zoom = zoom;
 	}
 
 
 	/**
-	 * Paints all the cells with their current state.
+	 * Replaces the grid with a new one of the size if it differs.
+	 * <p> The thread running the algorithm must have been stopped.
+	 */
+	private void setMazeSize( int rows, int cols ) {
+		if( rows == grid.rows && cols == grid.cols ) return;
+
+		Dimension view = ( getParent() != null ) ? getParent().getSize() : new Dimension( VIEW_SIZE, VIEW_SIZE );
+		setGrid( new Grid( rows, cols ), view.width, view.height );
+		revalidate();
+		if( getParent() instanceof JViewport ) {
+			( ( JViewport ) getParent() ).setViewPosition( new Point() );
+		}
+	}
+
+
+	/**
+	 * Interrupts the thread running the algorithm and waits for it to finish.
+	 * <p> The grid and the cell states are shared with the thread, so this method
+	 * must be called before either of them is changed.
+	 */
+	private void stopThread() {
+		thread.interrupt();
+		boolean interrupted = false;
+		while( thread.isAlive() ) {
+			try {
+				thread.join();
+			} catch( InterruptedException e ) {
+				interrupted = true;
+			}
+		}
+		if( interrupted ) Thread.currentThread().interrupt();
+	}
+
+
+	/**
+	 * @return the number of pixels per cell at the zoom level
+	 */
+	private static double scale( int zoom ) {
+		return ( zoom < PITCHES.length ) ? PITCHES[ zoom ] : 4.0 / ( 1L << ( zoom - PITCHES.length ) );
+	}
+
+
+	/**
+	 * @return the farthest zoom level, the first one the whole maze is small at
+	 */
+	private int maxZoom() {
+		int zoom = 0;
+		while( Math.max( grid.rows, grid.cols ) * scale( zoom ) > MIN_VIEW_SIZE ) {
+			zoom++;
+		}
+		return zoom;
+	}
+
+
+	/**
+	 * Zooms the field keeping the point of the maze under the anchor in place.
+	 * <p> This method is called by the main window of the program and the mouse wheel.
+	 *
+	 * @param steps  the number of the levels, positive to zoom out, negative to zoom in
+	 * @param anchor the point of the field, null for the center of the visible area
+	 */
+	void zoom( int steps, Point anchor ) {
+		int newZoom = Math.max( 0, Math.min( zoom + steps, maxZoom() ) );
+		if( newZoom == zoom ) return;
+
+		Rectangle view = getVisibleRect();
+		if( anchor == null ) {
+			anchor = new Point( view.x + view.width / 2, view.y + view.height / 2 );
+		}
+		double ratio = scale( newZoom ) / scale( zoom );
+		zoom = newZoom;
+
+		Dimension size = getPreferredSize();
+		if( getParent() instanceof JViewport ) {
+			JViewport viewport = ( JViewport ) getParent();
+			viewport.setViewSize( size );
+			Dimension extent = viewport.getExtentSize();
+			int x = ( int ) ( anchor.x * ratio ) - ( anchor.x - view.x );
+			int y = ( int ) ( anchor.y * ratio ) - ( anchor.y - view.y );
+			viewport.setViewPosition( new Point( Math.max( 0, Math.min( x, size.width - extent.width ) ),
+					Math.max( 0, Math.min( y, size.height - extent.height ) ) ) );
+		}
+		revalidate();
+		repaint();
+	}
+
+
+	@Override
+	public Dimension getPreferredSize() {
+		double scale = scale( zoom );
+		return new Dimension( ( int ) Math.ceil( grid.cols * scale ), ( int ) Math.ceil( grid.rows * scale ) );
+	}
+
+
+	/**
+	 * Redraws the visible changed cells in the backbuffer and copies it on the screen.
+	 * Redraws all the visible cells if the field has been scrolled or zoomed.
 	 *
-	 * @param g the Graphics context will be transferred into a cell's method.
+	 * @param g the Graphics context, clipped to the repainted area
 	 */
 	@Override
 	public void paintComponent( Graphics g ) {
 		super.paintComponent( g );
-		for( int row = 0; row < ROW; row++ ) {
-			for( int col = 0; col < COL; col++ ) {
-				cells[ row ][ col ].paint( g );
+		int zoom = this.zoom;
+		if( zoom >= PITCHES.length ) {
+			paintOverview( g, scale( zoom ) );
+			return;
+		}
+
+		Rectangle view = getVisibleRect();
+		if( view.isEmpty() ) return;
+		int pitch = PITCHES[ zoom ];
+		int firstCol = view.x / pitch;
+		int firstRow = view.y / pitch;
+		int lastCol = Math.min( ( view.x + view.width - 1 ) / pitch, grid.cols - 1 );
+		int lastRow = Math.min( ( view.y + view.height - 1 ) / pitch, grid.rows - 1 );
+
+		boolean moved = zoom != paintedZoom || !view.equals( painted );
+		if( moved ) {
+			visibleCells = new Rectangle( firstCol, firstRow, lastCol - firstCol + 1, lastRow - firstRow + 1 );
+		}
+		if( backbuffer == null || backbuffer.getWidth() < view.width || backbuffer.getHeight() < view.height ) {
+			backbuffer = new BufferedImage( view.width, view.height, BufferedImage.TYPE_INT_RGB );
+			moved = true;
+		}
+
+		Graphics bg = backbuffer.getGraphics();
+		bg.translate( -view.x, -view.y );
+		synchronized( dirty ) {
+			if( moved || dirty.isAll() ) {
+				bg.setColor( getBackground() );
+				bg.fillRect( view.x, view.y, view.width, view.height );
+				for( int row = firstRow; row <= lastRow; row++ ) {
+					for( int col = firstCol; col <= lastCol; col++ ) {
+						Cell.paint( bg, grid, states, grid.index( row, col ), testMap,
+								col * pitch, row * pitch, pitch - 1 );
+					}
+				}
+			} else {
+				for( int i = 0; i < dirty.size(); i++ ) {
+					int cell = dirty.get( i );
+					Cell.paint( bg, grid, states, cell, testMap,
+							grid.col( cell ) * pitch, grid.row( cell ) * pitch, pitch - 1 );
+				}
 			}
+			dirty.clear();
+		}
+		bg.dispose();
+		painted.setBounds( view );
+		paintedZoom = zoom;
+		g.drawImage( backbuffer, view.x, view.y, view.x + view.width, view.y + view.height,
+				0, 0, view.width, view.height, null );
+	}
+
+
+	/**
+	 * Draws the overview of the maze scaled to the zoom level.
+	 *
+	 * @param scale the number of pixels per cell
+	 */
+	private void paintOverview( Graphics g, double scale ) {
+		double block = overview.block() * scale;
+		g.clipRect( 0, 0, ( int ) Math.ceil( grid.cols * scale ), ( int ) Math.ceil( grid.rows * scale ) );
+		synchronized( dirty ) {
+			g.drawImage( overview.image, 0, 0, ( int ) Math.ceil( overview.image.getWidth() * block ),
+					( int ) Math.ceil( overview.image.getHeight() * block ), null );
+			dirty.clear();
 		}
+		paintedZoom = zoom;
+	}
+
+
+	/**
+	 * Schedules the cell to be redrawn with its current state.
+	 * Repaints only the area of the cell, or its block of the overview,
+	 * and nothing if it isn't visible.
+	 *
+	 * @param cell the changed cell
+	 */
+	private void repaintCell( int cell ) {
+		int zoom = this.zoom;
+		boolean changed;
+		boolean all = false;
+		synchronized( dirty ) {
+			changed = overview.set( cell, states.get( cell ), states.hasDirections( cell ) );
+			if( zoom < PITCHES.length ) {
+				changed = visibleCells.contains( grid.col( cell ), grid.row( cell ) ) && dirty.add( cell );
+				all = dirty.isAll();
+			}
+		}
+		if( !changed ) return;
+		if( all ) {
+			repaint();
+			return;
+		}
+
+		double scale = scale( zoom );
+		int block = ( zoom < PITCHES.length ) ? 1 : overview.block();
+		int size = ( int ) Math.ceil( block * scale );
+		repaint( ( int ) ( grid.col( cell ) / block * block * scale ), ( int ) ( grid.row( cell ) / block * block * scale ),
+				size + 1, size + 1 );
+	}
+
+
+	/**
+	 * Sets the same state to all the cells, clears all the path directions
+	 * and schedules the whole field to be redrawn.
+	 */
+	private void fill( Cell.State state ) {
+		synchronized( dirty ) {
+			states.fill( state );
+			overview.fill( state );
+			dirty.addAll();
+		}
+		repaint();
+	}
+
+
+	/**
+	 * Changes the state of the cell and schedules it to be redrawn.
+	 */
+	private void setState( int cell, Cell.State state ) {
+		states.set( cell, state );
+		repaintCell( cell );
 	}
 
 
@@ -64,19 +368,81 @@ class Field extends JPanel implements Runnable {
 	@Override
 	public void run() {
 		try {
-			if( fState == FState.GENERATION ) {
-				RandomMazeMaker.carvePassage( this, new Position( false ) );
-				RandomMazeMaker.addExtraGates( this );
-				RandomMazeMaker.setStartAndGoal( this );
-			} else {
-				if( AStar.findPath( this ) ) {
-					mainWndCallback.setPathLength( "" + cells[ goal.row ][ goal.col ].g );
-				}
+			switch( fState ) {
+				case GENERATION:
+					MazeEngine.generate( grid, mainWndCallback.getGenerationMode(), mainWndCallback.getNumberOfGates(), seed,
+							this );
+					break;
+				case PATHFINDING:
+					expanded = 0;
+					int[] path = MazeEngine.solve( grid, start, goal, mainWndCallback.getSearchMode(), this );
+					if( path != null ) {
+						mainWndCallback.setPathLength( "" + ( path.length - 1 ) );
+					}
+					mainWndCallback.setExpanded( "" + expanded );
+					break;
+				case REPLAY:
+					try( TraceReader reader = trace ) {
+						reader.replay( grid, this );
+					}
+					break;
 			}
+		} catch( IOException e ) {
+			SwingUtilities.invokeLater( () -> JOptionPane.showMessageDialog( this,
+					"Couldn't replay the trace: " + e.getMessage(), "Replay", JOptionPane.ERROR_MESSAGE ) );
 		} catch( InterruptedException ignored ) {}
 	}
 
 
+	/**
+	 * Draws a single step of the maze engine.
+	 *
+	 * @param event what has happened
+	 * @param cell  the index of the cell in the grid
+	 * @throws InterruptedException
+	 */
+	@Override
+	public void onEvent( MazeEvent event, int cell ) throws InterruptedException {
+		if( event == MazeEvent.START ) {
+			start = cell;
+		} else if( event == MazeEvent.GOAL ) {
+			goal = cell;
+		}
+		states.apply( event, cell, start, goal, pathStage );
+		switch( event ) {
+			case MARK: // The wall removal follows
+			case OPEN: // The parent cell is being closed
+			case OPEN_BACKWARD:
+			case START:
+			case GOAL:
+				repaintCell( cell );
+				return;
+			case CARVE:
+				repaintCell( cell );
+				break;
+			case REMOVE_RIGHT_WALL:
+				repaintCell( cell );
+				repaintCell( cell + 1 );
+				break;
+			case REMOVE_BOTTOM_WALL:
+				repaintCell( cell );
+				repaintCell( cell + grid.cols );
+				break;
+			case CLOSE:
+			case CLOSE_BACKWARD:
+				expanded++;
+				repaintCell( cell );
+				break;
+			case PATH:
+				if( cell != goal ) repaintCell( pathStage );
+				repaintCell( cell );
+				pathStage = cell;
+				break;
+		}
+		sleep( event );
+	}
+
+
 	/**
 	 * Displays one of the predefined test maps.
 	 * <p> This method is called only by the main window of the program.
@@ -84,63 +450,108 @@ class Field extends JPanel implements Runnable {
 	 * @param mapNumber the number of the map to be shown
 	 */
 	void showTestMap( int mapNumber ) {
-		if( ROW < 25 || COL < 25 ) {
+		if( grid.rows < TestMaps.MIN_SIZE || grid.cols < TestMaps.MIN_SIZE ) {
 			// TODO: Don't display Map 1 - Map 3 buttons in such a little maze at all
 			return;
 		}
-		if( thread.isAlive() ) {
-			thread.interrupt();
+		stopThread();
+		testMap = true;
+		Maze maze = TestMaps.build( grid, mapNumber, 1 );
+		fill( Cell.State.PASSAGE );
+
+		start = maze.start;
+		setState( start, Cell.State.START );
+
+		goal = maze.goal;
+		setState( goal, Cell.State.GOAL );
+	}
+
+
+	/**
+	 * Opens the trace recorded by the maze engine and starts its replay
+	 * via running a new thread. The field takes the size of the traced maze.
+	 * <p> This method is called only by the main window of the program.
+	 *
+	 * @param file the trace file
+	 * @throws IOException if the file isn't a trace or its maze is too large to be shown
+	 */
+	void replay( Path file ) throws IOException {
+		TraceReader reader = new TraceReader( FileChannel.open( file, StandardOpenOption.READ ) );
+		if( !canShow( reader.rows, reader.cols ) ) {
+			reader.close();
+			throw new IOException( "Too large maze to be shown: " + reader.rows + "x" + reader.cols );
 		}
-		for( int row = 0; row < ROW; row++ ) {
-			for( int col = 0; col < COL; col++ ) {
-				cells[ row ][ col ] = new Cell( row, col, Cell.State.PASSAGE );
-			}
+		stopThread();
+		setMazeSize( reader.rows, reader.cols );
+		testMap = false;
+		start = -1;
+		goal = -1;
+		reader.readSnapshot( grid );
+		fill( reader.hasSnapshot() ? Cell.State.PASSAGE : Cell.State.BLOCK );
+		trace = reader;
+		fState = FState.REPLAY;
+		thread = new Thread( this );
+		thread.start();
+	}
+
+
+	/**
+	 * Opens the maze file and shows the maze. The field takes the size of the maze.
+	 * <p> This method is called only by the main window of the program.
+	 *
+	 * @param file the maze file
+	 * @throws IOException if the file isn't a maze file or the maze is too large to be shown
+	 */
+	void open( Path file ) throws IOException {
+		Maze maze = MazeFile.open( file );
+		if( !canShow( maze.grid.rows, maze.grid.cols ) ) {
+			throw new IOException( "Too large maze to be shown: " + maze.grid.rows + "x" + maze.grid.cols );
 		}
-		switch( mapNumber ) {
-			case 1: // Only start and goal present on this map
-				break;
-			case 2: // ~shape: '|'
-				for( int row = 10; row < 20; row++ ) {
-					cells[ row ][ 14 ].rightWall = true;
-					cells[ row ][ 15 ].leftWall = true;
-				}
-				break;
-			case 3: // ~shape: '_____|'
-				for( int row = 13; row < 16; row++ ) {
-					cells[ row ][ 20 ].rightWall = true;
-					cells[ row ][ 21 ].leftWall = true;
-				}
-				for( int col = 7; col < 21; col++ ) {
-					cells[ 15 ][ col ].bottomWall = true;
-					cells[ 16 ][ col ].topWall = true;
-				}
-				break;
+		stopThread();
+		setMazeSize( maze.grid.rows, maze.grid.cols );
+		for( int i = 0; i < grid.wallWords(); i++ ) {
+			grid.setWallWord( i, maze.grid.getWallWord( i ) );
 		}
+		testMap = false;
+		seed = maze.seed;
+		fill( Cell.State.PASSAGE );
 
-		start = new Position( 15, 7 );
-		cells[ start.row ][ start.col ].state = Cell.State.START;
+		start = maze.start;
+		setState( start, Cell.State.START );
 
-		goal = new Position( 15, 23 );
-		cells[ goal.row ][ goal.col ].state = Cell.State.GOAL;
+		goal = maze.goal;
+		setState( goal, Cell.State.GOAL );
+	}
 
-		repaint();
+
+	/**
+	 * Saves the shown maze to the maze file.
+	 * <p> This method is called only by the main window of the program.
+	 *
+	 * @param file the maze file
+	 * @return false if there is no complete maze to be saved
+	 * @throws IOException
+	 */
+	boolean save( Path file ) throws IOException {
+		if( start == -1 || goal == -1 || thread.isAlive() && fState != FState.PATHFINDING ) return false;
+		MazeFile.write( new Maze( grid, start, goal, seed ), file );
+		return true;
 	}
 
 
 	/**
-	 * Resets cells in cell array to their default state (BLOCK)
+	 * Resets cells in the grid to their default state (BLOCK)
 	 * and starts generation algorithm via running a new thread.
 	 * <p> This method is called only by the main window of the program.
 	 */
 	void generateMaze() {
-		if( thread.isAlive() ) {
-			thread.interrupt();
-		}
-		for( int row = 0; row < ROW; row++ ) {
-			for( int col = 0; col < COL; col++ ) {
-				cells[ row ][ col ] = new Cell( row, col );
-			}
-		}
+		stopThread();
+		testMap = false;
+		start = -1;
+		goal = -1;
+		seed = seeds.nextLong();
+		grid.reset();
+		fill( Cell.State.BLOCK );
 		fState = FState.GENERATION;
 		thread = new Thread( this );
 		thread.start();
@@ -148,28 +559,17 @@ class Field extends JPanel implements Runnable {
 
 
 	/**
-	 * Resets cells in cell array to the last generated state (PASSAGE)
+	 * Resets cells in the grid to the last generated state (PASSAGE)
 	 * and starts pathfinding algorithm via running a new thread.
 	 * <p> This method is called only by the main window of the program.
 	 */
 	void findPath() {
-		if( start == null || goal == null ) return;
-		if( thread.isAlive() ) {
-			if( fState == FState.GENERATION ) {
-				return;
-			} else {
-				thread.interrupt();
-			}
-		}
-		for( int row = 0; row < ROW; row++ ) {
-			for( int col = 0; col < COL; col++ ) {
-				cells[ row ][ col ].state = Cell.State.PASSAGE;
-				cells[ row ][ col ].dirStart = null;
-				cells[ row ][ col ].dirGoal = null;
-			}
-		}
-		cells[ start.row ][ start.col ].state = Cell.State.START;
-		cells[ goal.row ][ goal.col ].state = Cell.State.GOAL;
+		if( start == -1 || goal == -1 ) return;
+		if( thread.isAlive() && fState == FState.GENERATION ) return;
+		stopThread();
+		fill( Cell.State.PASSAGE );
+		setState( start, Cell.State.START );
+		setState( goal, Cell.State.GOAL );
 
 		fState = FState.PATHFINDING;
 		thread = new Thread( this );
@@ -179,21 +579,43 @@ class Field extends JPanel implements Runnable {
 
 	/**
 	 * Used when running visualisation to make a pause for a custom time.
+	 * <p> When replaying a trace, the speed depends on the event: generation
+	 * and pathfinding steps follow their own speed settings.
 	 *
+	 * @param event the drawn event
 	 * @throws InterruptedException
 	 */
-	void sleep() throws InterruptedException {
-		int animationTime = mainWndCallback.getAnimationSpeed( fState );
+	void sleep( MazeEvent event ) throws InterruptedException {
+		FState speedState = fState;
+		if( fState == FState.REPLAY ) {
+			switch( event ) {
+				case OPEN:
+				case CLOSE:
+				case OPEN_BACKWARD:
+				case CLOSE_BACKWARD:
+				case PATH:
+					speedState = FState.PATHFINDING;
+					break;
+				default:
+					speedState = FState.GENERATION;
+					break;
+			}
+		}
+		int animationTime = mainWndCallback.getAnimationSpeed( speedState );
 		long delay = ( long ) ( Math.pow( 2, 10 - animationTime ) - 1 );
-		if( delay > 0 ) Thread.sleep( delay );
+		if( delay > 0 ) {
+			Thread.sleep( delay );
+		} else if( Thread.interrupted() ) {
+			throw new InterruptedException();
+		}
 	}
 
 	/**
 	 * Determines the global state of the program which is used during its running.
-	 * <p> May be either <code>GENERATION</code> of a new random maze or
-	 * <code>PATHFINDING</code>
+	 * <p> May be either <code>GENERATION</code> of a new random maze,
+	 * <code>PATHFINDING</code> or <code>REPLAY</code> of a recorded trace
 	 */
 	static enum FState {
-		GENERATION, PATHFINDING
+		GENERATION, PATHFINDING, REPLAY
 	}
 }
@@ -1,17 +1,23 @@
 package maze;
 
+import maze.core.GenerationMode;
+import maze.core.SearchMode;
+
 import javax.swing.*;
 import javax.swing.border.BevelBorder;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Insets;
+import java.io.IOException;
 import java.util.Hashtable;
 
 public final class MainWindow {
 	private final Field field;
 	private final JLabel pathLengthVal;
+	private final JLabel expandedVal;
 
-	MainWindow( int totalRow, int totalCol ) {
+	MainWindow( int totalRow, int totalCol, long seed ) {
 
 		/* === GENERATION BOX =============================================== */
 
@@ -39,13 +45,18 @@ public final class MainWindow {
 		extraGates.setLabelTable( labelTableGates );
 		extraGates.setPaintLabels( true );
 
+		// Algorithm
+		JComboBox<GenerationMode> generationMode = new JComboBox<>( GenerationMode.values() );
+		generationMode.setPreferredSize( new Dimension( 130, 25 ) );
+
 		// Box
 		JPanel mazeGeneratorWnd = new JPanel( new FlowLayout() );
 		mazeGeneratorWnd.setBorder( BorderFactory.createTitledBorder( "Maze" ) );
-		mazeGeneratorWnd.setPreferredSize( new Dimension( 150, 305 ) );
+		mazeGeneratorWnd.setPreferredSize( new Dimension( 150, 335 ) );
 		mazeGeneratorWnd.add( new Button( BtnType.TEST, 1 ) );
 		mazeGeneratorWnd.add( new Button( BtnType.TEST, 2 ) );
 		mazeGeneratorWnd.add( new Button( BtnType.TEST, 3 ) );
+		mazeGeneratorWnd.add( generationMode );
 		mazeGeneratorWnd.add( new Button( BtnType.GENERATE ) );
 		mazeGeneratorWnd.add( new JLabel( "Animation speed:" ) );
 		mazeGeneratorWnd.add( mazeAnimation );
@@ -64,15 +75,39 @@ public final class MainWindow {
 		findPathAnimation.setLabelTable( labelTable );
 		findPathAnimation.setPaintLabels( true );
 
+		// Algorithm
+		JComboBox<SearchMode> searchMode = new JComboBox<>( SearchMode.values() );
+		searchMode.setPreferredSize( new Dimension( 130, 25 ) );
+
 		// Box
 		JPanel findPathWnd = new JPanel( new FlowLayout() );
 		findPathWnd.setBorder( BorderFactory.createTitledBorder( "Pathfinding" ) );
-		findPathWnd.setPreferredSize( new Dimension( 150, 133 ) );
+		findPathWnd.setPreferredSize( new Dimension( 150, 165 ) );
+		findPathWnd.add( searchMode );
 		findPathWnd.add( new Button( BtnType.FIND_PATH ) );
 		findPathWnd.add( new JLabel( "Animation speed:" ) );
 		findPathWnd.add( findPathAnimation );
 
 
+		/* === FILES BOX ==================================================== */
+
+		JPanel filesWnd = new JPanel( new FlowLayout() );
+		filesWnd.setBorder( BorderFactory.createTitledBorder( "Files" ) );
+		filesWnd.setPreferredSize( new Dimension( 150, 95 ) );
+		filesWnd.add( new Button( BtnType.OPEN ) );
+		filesWnd.add( new Button( BtnType.SAVE ) );
+		filesWnd.add( new Button( BtnType.REPLAY ) );
+
+
+		/* === VIEW BOX ===================================================== */
+
+		JPanel viewWnd = new JPanel( new FlowLayout() );
+		viewWnd.setBorder( BorderFactory.createTitledBorder( "Zoom (Ctrl + wheel)" ) );
+		viewWnd.setPreferredSize( new Dimension( 150, 60 ) );
+		viewWnd.add( new Button( BtnType.ZOOM_IN ) );
+		viewWnd.add( new Button( BtnType.ZOOM_OUT ) );
+
+
 		/* === MAIN MENU ==================================================== */
 
 		JLabel pathLength = new JLabel( "Path length:" );
@@ -81,21 +116,35 @@ public final class MainWindow {
 		pathLengthVal = new JLabel();
 		pathLengthVal.setPreferredSize( new Dimension( 40, 30 ) );
 
+		JLabel expanded = new JLabel( "Expanded:" );
+		expanded.setPreferredSize( new Dimension( 70, 30 ) );
+
+		expandedVal = new JLabel();
+		expandedVal.setPreferredSize( new Dimension( 40, 30 ) );
+
 		JPanel menu = new JPanel( new FlowLayout() );
-		menu.setPreferredSize( new Dimension( 190, 658 ) );
+		menu.setPreferredSize( new Dimension( 190, 753 ) );
 		menu.setBorder( BorderFactory.createBevelBorder( BevelBorder.RAISED ) );
 		menu.add( mazeGeneratorWnd );
 		menu.add( findPathWnd );
+		menu.add( filesWnd );
+		menu.add( viewWnd );
 		menu.add( pathLength );
 		menu.add( pathLengthVal );
+		menu.add( expanded );
+		menu.add( expandedVal );
 
 		/* === FIELD ======================================================== */
 
-		field = new Field( totalRow, totalCol, new Callback() {
+		field = new Field( totalRow, totalCol, seed, new Callback() {
 			public void setPathLength( String length ) {
 				pathLengthVal.setText( length );
 			}
 
+			public void setExpanded( String cells ) {
+				expandedVal.setText( cells );
+			}
+
 			public int getNumberOfGates() {
 				return extraGates.getValue();
 			}
@@ -105,19 +154,33 @@ public final class MainWindow {
 						findPathAnimation.getValue() :
 						mazeAnimation.getValue();
 			}
+
+			public SearchMode getSearchMode() {
+				return ( SearchMode ) searchMode.getSelectedItem();
+			}
+
+			public GenerationMode getGenerationMode() {
+				return ( GenerationMode ) generationMode.getSelectedItem();
+			}
 		} );
 
 
 		/* === MAIN WINDOW ================================================== */
 
+		JScrollPane view = new JScrollPane( field );
+		view.setBorder( null );
+		view.getVerticalScrollBar().setUnitIncrement( Cell.HEIGHT + 1 );
+		view.getHorizontalScrollBar().setUnitIncrement( Cell.WIDTH + 1 );
+
+		// The maze has been zoomed to fit the view
+		Dimension fieldSize = field.getPreferredSize();
 		JFrame mainWindow = new JFrame( "Maze" );
-		mainWindow.setSize( 197 + totalCol * ( Cell.WIDTH + 1 ),
-				Math.max( 28 + totalRow * ( Cell.HEIGHT + 1 ), 520 ) );
+		mainWindow.setSize( 197 + Math.min( fieldSize.width, Field.VIEW_SIZE ),
+				Math.max( 28 + Math.min( fieldSize.height, Field.VIEW_SIZE ), 520 ) );
 		mainWindow.setDefaultCloseOperation( WindowConstants.EXIT_ON_CLOSE );
 		mainWindow.setLocationRelativeTo( null );
-		mainWindow.setResizable( false );
 		mainWindow.add( menu, BorderLayout.EAST );
-		mainWindow.add( field );
+		mainWindow.add( view );
 		mainWindow.setVisible( true );
 	}
 
@@ -125,14 +188,24 @@ public final class MainWindow {
 	private static enum BtnType {
 		TEST,
 		GENERATE,
-		FIND_PATH
+		FIND_PATH,
+		OPEN,
+		SAVE,
+		REPLAY,
+		ZOOM_IN,
+		ZOOM_OUT
 	}
 
 
 	private class Button extends JButton {
 		Button( BtnType type ) {
 			setPreferredSize( new Dimension( 100, 27 ) );
-			addActionListener( ActionEvent -> pathLengthVal.setText( "" ) );
+			if( type != BtnType.ZOOM_IN && type != BtnType.ZOOM_OUT ) {
+				addActionListener( ActionEvent -> {
+					pathLengthVal.setText( "" );
+					expandedVal.setText( "" );
+				} );
+			}
 			switch( type ) {
 				case GENERATE:
 					setText( "Generate" );
@@ -142,6 +215,32 @@ public final class MainWindow {
 					setText( "Find Path" );
 					addActionListener( ActionEvent -> field.findPath() );
 					break;
+				case OPEN:
+					setText( "Open..." );
+					setPreferredSize( new Dimension( 65, 27 ) );
+					setMargin( new Insets( 2, 2, 2, 2 ) );
+					addActionListener( ActionEvent -> openMaze() );
+					break;
+				case SAVE:
+					setText( "Save..." );
+					setPreferredSize( new Dimension( 65, 27 ) );
+					setMargin( new Insets( 2, 2, 2, 2 ) );
+					addActionListener( ActionEvent -> saveMaze() );
+					break;
+				case REPLAY:
+					setText( "Replay..." );
+					addActionListener( ActionEvent -> replayTrace() );
+					break;
+				case ZOOM_IN:
+					setText( "In" );
+					setPreferredSize( new Dimension( 65, 27 ) );
+					addActionListener( ActionEvent -> field.zoom( -1, null ) );
+					break;
+				case ZOOM_OUT:
+					setText( "Out" );
+					setPreferredSize( new Dimension( 65, 27 ) );
+					addActionListener( ActionEvent -> field.zoom( 1, null ) );
+					break;
 			}
 		}
 
@@ -153,26 +252,83 @@ public final class MainWindow {
 	}
 
 
+	/**
+	 * Asks for a maze file and shows the maze in the field.
+	 */
+	private void openMaze() {
+		JFileChooser chooser = new JFileChooser();
+		if( chooser.showOpenDialog( field ) != JFileChooser.APPROVE_OPTION ) return;
+		try {
+			field.open( chooser.getSelectedFile().toPath() );
+		} catch( IOException e ) {
+			JOptionPane.showMessageDialog( field, "Couldn't open the maze: " + e.getMessage(),
+					"Open", JOptionPane.ERROR_MESSAGE );
+		}
+	}
+
+
+	/**
+	 * Asks for a file and saves the shown maze to it.
+	 */
+	private void saveMaze() {
+		JFileChooser chooser = new JFileChooser();
+		if( chooser.showSaveDialog( field ) != JFileChooser.APPROVE_OPTION ) return;
+		try {
+			if( !field.save( chooser.getSelectedFile().toPath() ) ) {
+				JOptionPane.showMessageDialog( field, "There is no complete maze to be saved",
+						"Save", JOptionPane.ERROR_MESSAGE );
+			}
+		} catch( IOException e ) {
+			JOptionPane.showMessageDialog( field, "Couldn't save the maze: " + e.getMessage(),
+					"Save", JOptionPane.ERROR_MESSAGE );
+		}
+	}
+
+
+	/**
+	 * Asks for a trace file recorded by the maze engine and replays it in the field.
+	 * <p> The replay speed is set by the animation sliders.
+	 */
+	private void replayTrace() {
+		JFileChooser chooser = new JFileChooser();
+		if( chooser.showOpenDialog( field ) != JFileChooser.APPROVE_OPTION ) return;
+		try {
+			field.replay( chooser.getSelectedFile().toPath() );
+		} catch( IOException e ) {
+			JOptionPane.showMessageDialog( field, "Couldn't open the trace: " + e.getMessage(),
+					"Replay", JOptionPane.ERROR_MESSAGE );
+		}
+	}
+
+
 	static interface Callback {
 		void setPathLength( String length );
+		void setExpanded( String cells );
 		int getNumberOfGates();
 		int getAnimationSpeed( Field.FState fState );
+		SearchMode getSearchMode();
+		GenerationMode getGenerationMode();
 	}
 
 
 	public static void main( String[] args ) {
 		try {
 			int row = 30, col = 30;
+			long seed = System.nanoTime();
 			if( args.length >= 2 ) {
 				row = Integer.parseInt( args[ 0 ] );
 				col = Integer.parseInt( args[ 1 ] );
-				if( row < 3 || 50 < row || col < 3 || 50 < col ) {
+				if( row < 3 || col < 3 || !Field.canShow( row, col ) ) {
 					throw new IllegalArgumentException();
 				}
 			}
-			new MainWindow( row, col );
+			if( args.length >= 3 ) {
+				seed = Long.parseLong( args[ 2 ] );
+			}
+			new MainWindow( row, col, seed );
 		} catch( IllegalArgumentException e ) {
-			System.out.println( "Optional command-line arguments: row col (numbers between 3 and 50)" );
+			System.out.println( "Optional command-line arguments: row col (numbers from 3, " +
+					"up to " + Integer.MAX_VALUE + " cells) [seed]" );
 		}
 	}
 }
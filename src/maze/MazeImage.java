@@ -0,0 +1,368 @@
+package maze;
+
+import maze.core.Grid;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * The picture of the whole maze saved as PNG without a display.
+ * <p> The cells look as in the main window: a cell is a square of <code>size + 1</code> pixels
+ * filled with the color of its state, with its walls on the sides, the corners
+ * and the found path through its center. The pixels are written to the <code>int</code>
+ * array of a <code>BufferedImage</code> directly, so no <code>Graphics</code> calls are made.
+ * <p> A cell only writes the pixels of its own square, so horizontal bands of cell rows
+ * are independent. Each of them is rendered and compressed on the pool as a separate
+ * piece of the deflate stream, a few bands ahead of the writer. The pieces end with
+ * a sync flush on a byte boundary, so they are simply written one after another,
+ * and their Adler-32 checksums are combined as in zlib. The memory depends
+ * on the width of the picture and the number of threads, not on its height.
+ * <p> The picture has only a dozen colors, so it is saved with a palette, 4 bits per pixel.
+ * Compressing takes most of the time, the fastest deflate level is used.
+ */
+final class MazeImage {
+
+	// The pixels in a band, about 4 MB
+	private static final int BAND_PIXELS = 1 << 20;
+
+	// The largest side of the picture with the default cell size
+	private static final int DEFAULT_SIDE = 4096;
+
+	private static final byte[] SIGNATURE = { ( byte ) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final byte[] ZLIB_HEADER = { 0x78, 0x01 }; // Deflate, the fastest level
+	private static final int ADLER_BASE = 65521;
+
+	private static final int WALL_COLOR = Color.BLACK.getRGB();
+	private static final int PATH_COLOR = Cell.PATH_COLOR.getRGB();
+	private static final int[] COLORS = Arrays.stream( Cell.State.values() )
+			.mapToInt( state -> Cell.color( state ).getRGB() ).toArray();
+
+	// All the colors of the picture, no more than 16, so a pixel is saved in 4 bits
+	private static final int[] PALETTE = IntStream.concat( IntStream.of( WALL_COLOR, PATH_COLOR ),
+			Arrays.stream( COLORS ) ).distinct().toArray();
+
+	// The palette index of a color is INDEXES[ color * HASH_MULTIPLIER >>> 24 ],
+	// the multiplier is the first one which gives no collisions
+	private static final int HASH_MULTIPLIER;
+	private static final byte[] INDEXES = new byte[ 256 ];
+
+	static {
+		int multiplier = 0x9E3779B1;
+		while( !isPerfectHash( multiplier ) ) {
+			multiplier += 2;
+		}
+		HASH_MULTIPLIER = multiplier;
+		for( int i = 0; i < PALETTE.length; i++ ) {
+			INDEXES[ ( PALETTE[ i ] * multiplier ) >>> 24 ] = ( byte ) i;
+		}
+	}
+
+	private final Grid grid;
+	private final CellStates states;
+	private final int size;
+	private final int pitch;
+	private final int width;
+	private final int height;
+	private final int bandRows;
+
+
+	/**
+	 * @param grid   the maze
+	 * @param states visual states of the cells
+	 * @param size   the width and the height of a cell without the walls, at least 2:
+	 *               a smaller cell would be all black with the corners
+	 */
+	MazeImage( Grid grid, CellStates states, int size ) {
+		if( size < 2 ) throw new IllegalArgumentException( "Illegal cell size: " + size );
+		long width = ( long ) grid.cols * ( size + 1 );
+		long height = ( long ) grid.rows * ( size + 1 );
+		// A band takes at least a row of cells
+		if( width * ( size + 1 ) > Integer.MAX_VALUE - 8 || height > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException( "Too large picture: " + width + " x " + height );
+		}
+		this.grid = grid;
+		this.states = states;
+		this.size = size;
+		this.pitch = size + 1;
+		this.width = ( int ) width;
+		this.height = ( int ) height;
+		this.bandRows = ( int ) Math.max( 1, BAND_PIXELS / ( width * pitch ) );
+	}
+
+
+	/**
+	 * @return the largest cell size up to the one in the main window
+	 * which keeps the picture of the grid within a few thousand pixels
+	 */
+	static int defaultSize( Grid grid ) {
+		return Math.max( 2, Math.min( Cell.WIDTH, DEFAULT_SIDE / Math.max( grid.rows, grid.cols ) - 1 ) );
+	}
+
+
+	int width() {
+		return width;
+	}
+
+
+	int height() {
+		return height;
+	}
+
+
+	/**
+	 * Renders the band of the cell rows from the top one (inclusive) to the bottom one (exclusive).
+	 *
+	 * @return the picture of the band
+	 */
+	BufferedImage render( int top, int bottom ) {
+		BufferedImage band = new BufferedImage( width, ( bottom - top ) * pitch, BufferedImage.TYPE_INT_RGB );
+		int[] pixels = ( ( DataBufferInt ) band.getRaster().getDataBuffer() ).getData();
+		for( int row = top; row < bottom; row++ ) {
+			int y = ( row - top ) * pitch;
+			drawWalls( pixels, row, y * width );
+			for( int line = 2; line < size; line++ ) {
+				System.arraycopy( pixels, ( y + 1 ) * width, pixels, ( y + line ) * width, width );
+			}
+			for( int col = 0, cell = grid.index( row, 0 ); col < grid.cols; col++, cell++ ) {
+				if( states.hasDirections( cell ) ) drawPath( pixels, cell, col * pitch, y );
+			}
+		}
+		return band;
+	}
+
+
+	/**
+	 * Draws the top, the bottom and the first inner line of the pixels of the cell row,
+	 * the other inner lines are the same except the path.
+	 * The walls are read from the packed words, 32 cells at a time.
+	 *
+	 * @param offset the first pixel of the row
+	 */
+	private void drawWalls( int[] pixels, int row, int offset ) {
+		int inner = offset + width;
+		int bottom = offset + size * width;
+		long walls = 0;
+		long above = 0;
+		boolean left = true;
+		for( int col = 0, cell = grid.index( row, 0 ), x = 0; col < grid.cols; col++, cell++, x += pitch ) {
+			if( col == 0 || ( cell & 31 ) == 0 ) walls = grid.getWallWord( cell >>> 5 );
+			if( row > 0 && ( col == 0 || ( ( cell - grid.cols ) & 31 ) == 0 ) ) {
+				above = grid.getWallWord( ( cell - grid.cols ) >>> 5 );
+			}
+			boolean right = ( walls & ( 1L << ( cell << 1 ) ) ) != 0;
+			boolean down = ( walls & ( 2L << ( cell << 1 ) ) ) != 0;
+			boolean up = row == 0 || ( above & ( 2L << ( ( cell - grid.cols ) << 1 ) ) ) != 0;
+			int color = COLORS[ states.get( cell ).ordinal() ];
+
+			drawLine( pixels, offset + x, up, color );
+			drawLine( pixels, bottom + x, down, color );
+			Arrays.fill( pixels, inner + x, inner + x + size + 1, color );
+			if( left ) pixels[ inner + x ] = WALL_COLOR;
+			if( right ) pixels[ inner + x + size ] = WALL_COLOR;
+			left = right;
+		}
+	}
+
+
+	/**
+	 * Draws the top or the bottom line of a cell, the corners are always black.
+	 */
+	private void drawLine( int[] pixels, int from, boolean wall, int color ) {
+		Arrays.fill( pixels, from, from + size + 1, wall ? WALL_COLOR : color );
+		pixels[ from ] = WALL_COLOR;
+		pixels[ from + size ] = WALL_COLOR;
+	}
+
+
+	/**
+	 * Draws the path as <code>Cell.paint</code> does, except that it doesn't go beyond the cell.
+	 */
+	private void drawPath( int[] pixels, int cell, int x, int y ) {
+		int half = size / 2;
+		int thick = ( size >= Cell.WIDTH / 2 ) ? 1 : 0; // The half width of the path stroke
+		if( states.hasDirection( cell, Cell.Direction.LEFT ) )
+			fill( pixels, x, y + half - thick, x + half, y + half + thick, PATH_COLOR );
+		if( states.hasDirection( cell, Cell.Direction.RIGHT ) )
+			fill( pixels, x + half, y + half - thick, x + size, y + half + thick, PATH_COLOR );
+		if( states.hasDirection( cell, Cell.Direction.UP ) )
+			fill( pixels, x + half - thick, y, x + half + thick, y + half, PATH_COLOR );
+		if( states.hasDirection( cell, Cell.Direction.DOWN ) )
+			fill( pixels, x + half - thick, y + half, x + half + thick, y + size, PATH_COLOR );
+	}
+
+
+	/**
+	 * Fills the rectangle between the corners (inclusive).
+	 */
+	private void fill( int[] pixels, int left, int top, int right, int bottom, int color ) {
+		for( int offset = top * width; top <= bottom; top++, offset += width ) {
+			for( int i = offset + left; i <= offset + right; i++ ) {
+				pixels[ i ] = color;
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the picture in the PNG format.
+	 *
+	 * @param stream receives the picture, isn't closed
+	 * @param pool   renders and compresses the bands
+	 * @throws IOException
+	 */
+	void write( OutputStream stream, ForkJoinPool pool ) throws IOException {
+		DataOutputStream out = new DataOutputStream( stream );
+		out.write( SIGNATURE );
+		byte[] header = new byte[ 13 ];
+		putInt( header, 0, width );
+		putInt( header, 4, height );
+		header[ 8 ] = 4; // Bits per sample
+		header[ 9 ] = 3; // Palette, no compression, filter and interlace options
+		writeChunk( out, "IHDR", header, header.length );
+		byte[] palette = new byte[ 3 * PALETTE.length ];
+		for( int i = 0; i < PALETTE.length; i++ ) {
+			palette[ 3 * i ] = ( byte ) ( PALETTE[ i ] >>> 16 );
+			palette[ 3 * i + 1 ] = ( byte ) ( PALETTE[ i ] >>> 8 );
+			palette[ 3 * i + 2 ] = ( byte ) PALETTE[ i ];
+		}
+		writeChunk( out, "PLTE", palette, palette.length );
+		writeChunk( out, "IDAT", ZLIB_HEADER, ZLIB_HEADER.length );
+
+		int bands = ( grid.rows + bandRows - 1 ) / bandRows;
+		int ahead = 2 * pool.getParallelism();
+		Queue<ForkJoinTask<Piece>> pending = new ArrayDeque<>();
+		long adler = 1;
+		for( int band = 0, next = 0; band < bands; band++ ) {
+			for( ; next < bands && next < band + ahead; next++ ) {
+				int top = next * bandRows;
+				pending.add( pool.submit( () -> compress( top, Math.min( top + bandRows, grid.rows ) ) ) );
+			}
+			Piece piece = pending.remove().join();
+			writeChunk( out, "IDAT", piece.data, piece.length );
+			adler = combine( adler, piece.adler, piece.rawLength );
+		}
+
+		byte[] trailer = new byte[ 4 ];
+		putInt( trailer, 0, ( int ) adler );
+		writeChunk( out, "IDAT", trailer, trailer.length );
+		writeChunk( out, "IEND", trailer, 0 );
+		out.flush();
+	}
+
+
+	/**
+	 * Renders the band and compresses its scanlines of palette indexes.
+	 */
+	private Piece compress( int top, int bottom ) {
+		int[] pixels = ( ( DataBufferInt ) render( top, bottom ).getRaster().getDataBuffer() ).getData();
+		int rowBytes = ( width + 1 ) / 2 + 1;
+		byte[] raw = new byte[ ( pixels.length / width ) * rowBytes ];
+		for( int line = 0, pixel = 0; pixel < pixels.length; line += rowBytes ) {
+			// The filter byte stays 0, no filter. Two pixels go in a byte, the first one in the high bits
+			int i = line + 1;
+			for( int end = pixel + ( width & ~1 ); pixel < end; pixel += 2 ) {
+				raw[ i++ ] = ( byte ) ( paletteIndex( pixels[ pixel ] ) << 4 | paletteIndex( pixels[ pixel + 1 ] ) );
+			}
+			if( ( width & 1 ) != 0 ) raw[ i ] = ( byte ) ( paletteIndex( pixels[ pixel++ ] ) << 4 );
+		}
+
+		Adler32 checksum = new Adler32();
+		checksum.update( raw );
+		Deflater deflater = new Deflater( Deflater.BEST_SPEED, true );
+		deflater.setInput( raw );
+		boolean last = bottom == grid.rows;
+		if( last ) deflater.finish();
+		byte[] data = new byte[ raw.length / 16 + 64 ];
+		int length = 0;
+		while( true ) {
+			length += deflater.deflate( data, length, data.length - length,
+					last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH );
+			if( last ? deflater.finished() : deflater.needsInput() && length < data.length ) break;
+			if( length == data.length ) data = Arrays.copyOf( data, 2 * data.length );
+		}
+		deflater.end();
+		return new Piece( data, length, checksum.getValue(), raw.length );
+	}
+
+
+	private static int paletteIndex( int rgb ) {
+		return INDEXES[ ( rgb * HASH_MULTIPLIER ) >>> 24 ];
+	}
+
+
+	private static boolean isPerfectHash( int multiplier ) {
+		return Arrays.stream( PALETTE ).map( color -> ( color * multiplier ) >>> 24 ).distinct().count()
+				== PALETTE.length;
+	}
+
+
+	/**
+	 * @return the Adler-32 checksum of two joined byte sequences
+	 */
+	private static long combine( long first, long second, long secondLength ) {
+		long rem = secondLength % ADLER_BASE;
+		long sum1 = first & 0xFFFF;
+		long sum2 = rem * sum1 % ADLER_BASE;
+		sum1 += ( second & 0xFFFF ) + ADLER_BASE - 1;
+		sum2 += ( first >>> 16 ) + ( second >>> 16 ) + ADLER_BASE - rem;
+		if( sum1 >= ADLER_BASE ) sum1 -= ADLER_BASE;
+		if( sum1 >= ADLER_BASE ) sum1 -= ADLER_BASE;
+		if( sum2 >= 2 * ADLER_BASE ) sum2 -= 2 * ADLER_BASE;
+		if( sum2 >= ADLER_BASE ) sum2 -= ADLER_BASE;
+		return sum1 | ( sum2 << 16 );
+	}
+
+
+	private static void writeChunk( DataOutputStream out, String type, byte[] data, int length ) throws IOException {
+		byte[] name = type.getBytes( StandardCharsets.US_ASCII );
+		CRC32 crc = new CRC32();
+		crc.update( name );
+		crc.update( data, 0, length );
+		out.writeInt( length );
+		out.write( name );
+		out.write( data, 0, length );
+		out.writeInt( ( int ) crc.getValue() );
+	}
+
+
+	private static void putInt( byte[] bytes, int offset, int value ) {
+		bytes[ offset ] = ( byte ) ( value >>> 24 );
+		bytes[ offset + 1 ] = ( byte ) ( value >>> 16 );
+		bytes[ offset + 2 ] = ( byte ) ( value >>> 8 );
+		bytes[ offset + 3 ] = ( byte ) value;
+	}
+
+
+	/**
+	 * A compressed band.
+	 */
+	private static final class Piece {
+		final byte[] data;
+		final int length;
+		final long adler;
+		final long rawLength;
+
+
+		Piece( byte[] data, int length, long adler, long rawLength ) {
+			this.data = data;
+			this.length = length;
+			this.adler = adler;
+			this.rawLength = rawLength;
+		}
+	}
+}
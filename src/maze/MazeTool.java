@@ -0,0 +1,145 @@
+package maze;
+
+import maze.core.EllerMazeMaker;
+import maze.core.GenerationMode;
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeEngine;
+import maze.core.MazeFile;
+import maze.core.MazeEvent;
+import maze.core.MazeListener;
+import maze.core.Metrics;
+import maze.core.SearchMode;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Command-line tool for the maze files.
+ * <p> <code>generate rows cols gates seed file [generator]</code> - generates a maze on all
+ * the processors and saves it. The maze can be opened in the main window.
+ * The generator is the name of a <code>GenerationMode</code>, <code>BACKTRACKER</code> by default.
+ * <p> <code>stream rows cols seed file</code> - generates a maze row by row
+ * with Eller's algorithm, writing each row as soon as it is ready,
+ * so the memory depends only on the number of columns.
+ * <p> <code>solve file [mode]</code> - maps the maze file and finds the path
+ * from its start to its goal, right on the mapped walls.
+ * The mode is the name of a <code>SearchMode</code>, <code>A_STAR</code> by default.
+ * <p> <code>png file image [size [mode]]</code> - solves the maze file as above and saves
+ * the picture of the walls, the visited cells and the path as PNG, without a display.
+ * The size is the cell size in pixels, by default the picture is a few thousand pixels wide.
+ */
+public final class MazeTool {
+
+	public static void main( String[] args ) throws Exception {
+		if( ( args.length == 6 || args.length == 7 ) && args[ 0 ].equals( "generate" ) ) {
+			generate( Integer.parseInt( args[ 1 ] ), Integer.parseInt( args[ 2 ] ),
+					Integer.parseInt( args[ 3 ] ), Long.parseLong( args[ 4 ] ), Paths.get( args[ 5 ] ),
+					( args.length == 7 ) ? GenerationMode.valueOf( args[ 6 ] ) : GenerationMode.BACKTRACKER );
+		} else if( args.length == 5 && args[ 0 ].equals( "stream" ) ) {
+			stream( Integer.parseInt( args[ 1 ] ), Integer.parseInt( args[ 2 ] ), Long.parseLong( args[ 3 ] ),
+					Paths.get( args[ 4 ] ) );
+		} else if( ( args.length == 2 || args.length == 3 ) && args[ 0 ].equals( "solve" ) ) {
+			solve( Paths.get( args[ 1 ] ), ( args.length == 3 ) ? SearchMode.valueOf( args[ 2 ] ) : SearchMode.A_STAR );
+		} else if( args.length >= 3 && args.length <= 5 && args[ 0 ].equals( "png" ) ) {
+			png( Paths.get( args[ 1 ] ), Paths.get( args[ 2 ] ), ( args.length >= 4 ) ? Integer.parseInt( args[ 3 ] ) : 0,
+					( args.length == 5 ) ? SearchMode.valueOf( args[ 4 ] ) : SearchMode.A_STAR );
+		} else {
+			System.out.println( "Arguments: generate rows cols gates seed file [generator] | stream rows cols seed file | " +
+					"solve file [mode] | png file image [size [mode]]" );
+		}
+	}
+
+
+	private static void generate( int rows, int cols, int gates, long seed, Path file, GenerationMode mode )
+			throws IOException {
+		long time = System.nanoTime();
+		Maze maze = MazeEngine.generate( new Grid( rows, cols ), mode, gates, seed, ForkJoinPool.commonPool() );
+		long generated = System.nanoTime();
+		MazeFile.write( maze, file );
+		System.out.printf( "Generated in %d ms, saved in %d ms%n",
+				( generated - time ) / 1_000_000, ( System.nanoTime() - generated ) / 1_000_000 );
+	}
+
+
+	private static void stream( int rows, int cols, long seed, Path file ) throws IOException {
+		long time = System.nanoTime();
+		long size = ( long ) rows * cols;
+		if( rows < 1 || cols < 1 || size < 2 || size > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException( "Illegal maze size: " + rows + "x" + cols );
+		}
+		SplittableRandom rand = new SplittableRandom( seed );
+		int start = rand.nextInt( ( int ) size );
+		int goal = rand.nextInt( ( int ) size );
+		while( start == goal ) {
+			goal = rand.nextInt( ( int ) size );
+		}
+		try( MazeFile.RowWriter writer = new MazeFile.RowWriter( file, rows, cols, start, goal, seed ) ) {
+			EllerMazeMaker.generate( rows, cols, rand, writer );
+		}
+		System.out.printf( "Generated and saved in %d ms%n", ( System.nanoTime() - time ) / 1_000_000 );
+	}
+
+
+	private static void solve( Path file, SearchMode mode ) throws IOException, InterruptedException {
+		long time = System.nanoTime();
+		Maze maze = MazeFile.open( file );
+		long opened = System.nanoTime();
+		int[] path = MazeEngine.solve( maze.grid, maze.start, maze.goal, mode, MazeListener.SILENT );
+		System.out.printf( "Opened in %.1f ms, solved in %d ms, path length: %s%n", ( opened - time ) / 1e6,
+				( System.nanoTime() - opened ) / 1_000_000, ( path != null ) ? path.length - 1 : "no path" );
+		System.out.println( Metrics.report() );
+	}
+
+
+	private static void png( Path file, Path image, int size, SearchMode mode ) throws IOException, InterruptedException {
+		long time = System.nanoTime();
+		Maze maze = MazeFile.open( file );
+		StateRecorder recorder = new StateRecorder( maze );
+		int[] path = MazeEngine.solve( maze.grid, maze.start, maze.goal, mode, recorder );
+		long solved = System.nanoTime();
+		MazeImage picture = new MazeImage( maze.grid, recorder.states,
+				( size > 0 ) ? size : MazeImage.defaultSize( maze.grid ) );
+		try( OutputStream out = new BufferedOutputStream( Files.newOutputStream( image ) ) ) {
+			picture.write( out, ForkJoinPool.commonPool() );
+		}
+		System.out.printf( "Solved in %d ms, path length: %s, saved %d x %d in %d ms%n",
+				( solved - time ) / 1_000_000, ( path != null ) ? path.length - 1 : "no path",
+				picture.width(), picture.height(), ( System.nanoTime() - solved ) / 1_000_000 );
+	}
+
+
+	/**
+	 * Keeps the visual states of the cells as the main window shows them after the search.
+	 */
+	private static final class StateRecorder implements MazeListener {
+		final CellStates states;
+		private final int start;
+		private final int goal;
+		private int pathStage;
+
+
+		StateRecorder( Maze maze ) {
+			states = new CellStates( maze.grid.size() );
+			states.fill( Cell.State.PASSAGE );
+			start = maze.start;
+			goal = maze.goal;
+			states.set( start, Cell.State.START );
+			states.set( goal, Cell.State.GOAL );
+		}
+
+
+		@Override
+		public void onEvent( MazeEvent event, int cell ) {
+			states.apply( event, cell, start, goal, pathStage );
+			if( event == MazeEvent.PATH ) pathStage = cell;
+		}
+	}
+}
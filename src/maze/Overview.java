@@ -0,0 +1,115 @@
+package maze;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+
+/**
+ * The level-of-detail picture of the whole maze shown when it is zoomed out.
+ * <p> A pixel stands for a square block of cells, the block is chosen
+ * so the picture is never larger than <code>MAX_SIZE</code> on a side.
+ * So the memory of the picture and the time of drawing it don't depend on the maze size.
+ * <p> A pixel shows the most important state of the cells in its block: the path,
+ * then the search, then the passages. The picture is updated with every changed cell
+ * in O(1) and filled in O(picture) when all the cells get the same state,
+ * so the cells are never scanned. A pixel keeps its state until the next fill,
+ * even if its cell has got a less important one.
+ * <p> The walls aren't shown. The calls must be synchronized as for <code>DirtyCells</code>.
+ */
+final class Overview {
+	static final int MAX_SIZE = 1024;
+
+	private final int cols;
+	private final int shift;
+	final BufferedImage image;
+	private final int[] pixels;
+	private final byte[] ranks;
+
+
+	/**
+	 * Creates the picture of a maze with all the cells in the <code>BLOCK</code> state.
+	 *
+	 * @param rows the total number of rows in the maze
+	 * @param cols the total number of columns in the maze
+	 */
+	Overview( int rows, int cols ) {
+		this.cols = cols;
+		int shift = 0;
+		while( ( ( rows - 1 ) >> shift ) >= MAX_SIZE || ( ( cols - 1 ) >> shift ) >= MAX_SIZE ) {
+			shift++;
+		}
+		this.shift = shift;
+		image = new BufferedImage( ( ( cols - 1 ) >> shift ) + 1, ( ( rows - 1 ) >> shift ) + 1,
+				BufferedImage.TYPE_INT_RGB );
+		pixels = ( ( DataBufferInt ) image.getRaster().getDataBuffer() ).getData();
+		ranks = new byte[ pixels.length ];
+		fill( Cell.State.BLOCK );
+	}
+
+
+	/**
+	 * @return the number of cells on a side of the block shown by a pixel
+	 */
+	int block() {
+		return 1 << shift;
+	}
+
+
+	/**
+	 * Shows the state of all the cells.
+	 */
+	void fill( Cell.State state ) {
+		Arrays.fill( pixels, Cell.color( state ).getRGB() );
+		Arrays.fill( ranks, rank( state, false ) );
+	}
+
+
+	/**
+	 * Shows the changed state of the cell if it is at least as important
+	 * as the state shown in its block.
+	 *
+	 * @param cell  the index of the cell in the grid
+	 * @param state the new state of the cell
+	 * @param path  true if the cell is a part of the found path
+	 * @return true if the picture has changed
+	 */
+	boolean set( int cell, Cell.State state, boolean path ) {
+		int pixel = ( cell / cols >> shift ) * image.getWidth() + ( cell % cols >> shift );
+		byte rank = rank( state, path );
+		if( rank < ranks[ pixel ] ) return false;
+		int color = ( ( path && rank < rank( Cell.State.START, false ) ) ? Cell.PATH_COLOR : Cell.color( state ) )
+				.getRGB();
+		ranks[ pixel ] = rank;
+		if( pixels[ pixel ] == color ) return false;
+		pixels[ pixel ] = color;
+		return true;
+	}
+
+
+	private static byte rank( Cell.State state, boolean path ) {
+		switch( state ) {
+			case START:
+			case GOAL:
+			case ACHIEVED_GOAL:
+				return 6;
+			default:
+				if( path ) return 5;
+				break;
+		}
+		switch( state ) {
+			case A_CLOSED:
+			case B_CLOSED:
+				return 4;
+			case A_OPEN:
+			case B_OPEN:
+				return 3;
+			case PASSAGE:
+				return 2;
+			case MARKED:
+				return 1;
+			default:
+				return 0;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package maze;
+
+import maze.core.Grid;
+import maze.core.Maze;
+import maze.core.MazeEngine;
+import maze.core.TraceReader;
+import maze.core.TraceWriter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Command-line tool for the engine traces.
+ * <p> <code>record rows cols gates seed file</code> - generates and solves a maze
+ * at full speed, recording all the steps. The trace can be replayed in the main window.
+ * <p> <code>diff file1 file2</code> - finds the first different event of two traces.
+ */
+public final class TraceTool {
+
+	public static void main( String[] args ) throws Exception {
+		if( args.length == 6 && args[ 0 ].equals( "record" ) ) {
+			record( Integer.parseInt( args[ 1 ] ), Integer.parseInt( args[ 2 ] ),
+					Integer.parseInt( args[ 3 ] ), Long.parseLong( args[ 4 ] ), Paths.get( args[ 5 ] ) );
+		} else if( args.length == 3 && args[ 0 ].equals( "diff" ) ) {
+			diff( Paths.get( args[ 1 ] ), Paths.get( args[ 2 ] ) );
+		} else {
+			System.out.println( "Arguments: record rows cols gates seed file | diff file1 file2" );
+		}
+	}
+
+
+	private static void record( int rows, int cols, int gates, long seed, Path file )
+			throws IOException, InterruptedException {
+		Grid grid = new Grid( rows, cols );
+		try( TraceWriter trace = new TraceWriter( FileChannel.open( file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ), grid, false ) ) {
+			Maze maze = MazeEngine.generate( grid, gates, seed, trace );
+			int[] path = MazeEngine.solve( grid, maze.start, maze.goal, trace );
+			System.out.println( trace.events() + " events, path length: " + ( path.length - 1 ) );
+		}
+	}
+
+
+	private static void diff( Path first, Path second ) throws IOException {
+		try( TraceReader a = new TraceReader( FileChannel.open( first, StandardOpenOption.READ ) );
+		     TraceReader b = new TraceReader( FileChannel.open( second, StandardOpenOption.READ ) ) ) {
+			long event = TraceReader.firstDifference( a, b );
+			System.out.println( ( event == -1 ) ? "The traces are equal" : "The traces differ at event " + event );
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package maze.core;
+
+/**
+ * The A star abstract class.
+ * <p> For more information see
+ * <a href="http://en.wikipedia.org/wiki/A*_search_algorithm">Wikipedia</a> and
+ * <a href="http://www.policyalmanac.org/games/aStarTutorial.htm">A* Pathfinding for Beginners</a>
+ */
+public abstract class AStar {
+
+	/**
+	 * The A star algorithm.
+	 *
+	 * @param grid     the labyrinth to be solved
+	 * @param start    the start cell
+	 * @param goal     the goal cell
+	 * @param listener receives the progress
+	 * @return cells of the path joining the start and the goal (both inclusive)
+	 * if it has been found, null otherwise.
+	 * @throws InterruptedException
+	 */
+	public static int[] findPath( Grid grid, int start, int goal, MazeListener listener )
+			throws InterruptedException {
+		return findPath( grid, start, goal, null, listener );
+	}
+
+
+	/**
+	 * The A star algorithm with the landmark heuristic.
+	 *
+	 * @param grid      the labyrinth to be solved
+	 * @param start     the start cell
+	 * @param goal      the goal cell
+	 * @param landmarks the landmarks of the grid, null for the Manhattan heuristic
+	 * @param listener  receives the progress
+	 * @return cells of the path joining the start and the goal (both inclusive)
+	 * if it has been found, null otherwise.
+	 * @throws InterruptedException
+	 */
+	public static int[] findPath( Grid grid, int start, int goal, Landmarks landmarks, MazeListener listener )
+			throws InterruptedException {
+		return findPath( grid, start, goal, landmarks, new SearchData( grid.size() ), listener );
+	}
+
+
+	/**
+	 * The A star algorithm reusing the search data of the previous searches.
+	 *
+	 * @param grid      the labyrinth to be solved
+	 * @param start     the start cell
+	 * @param goal      the goal cell
+	 * @param landmarks the landmarks of the grid, null for the Manhattan heuristic
+	 * @param data      the search data of the grid size, reset by the call
+	 * @param listener  receives the progress
+	 * @return cells of the path joining the start and the goal (both inclusive)
+	 * if it has been found, null otherwise.
+	 * @throws InterruptedException
+	 */
+	static int[] findPath( Grid grid, int start, int goal, Landmarks landmarks, SearchData data,
+	                       MazeListener listener ) throws InterruptedException {
+		data.reset();
+		data.g[ start ] = 0;
+		data.parent[ start ] = -1;
+
+		boolean pathWasFound = start == goal;
+
+		// Ordered by f() = g() + h(), ties are broken on h()
+		IndexedHeap openSet = data.openSet;
+		openSet.add( start, 0, 0 );
+
+		while( !pathWasFound && !openSet.isEmpty() ) {
+			int cell = openSet.poll();
+			data.close( cell );
+
+			if( !grid.hasTopWall( cell ) ) {
+				pathWasFound |= tryToAddToOpenSet( data, cell, cell - grid.cols, goal, grid, landmarks, listener );
+			}
+			if( !grid.hasLeftWall( cell ) ) {
+				pathWasFound |= tryToAddToOpenSet( data, cell, cell - 1, goal, grid, landmarks, listener );
+			}
+			if( !grid.hasRightWall( cell ) ) {
+				pathWasFound |= tryToAddToOpenSet( data, cell, cell + 1, goal, grid, landmarks, listener );
+			}
+			if( !grid.hasBottomWall( cell ) ) {
+				pathWasFound |= tryToAddToOpenSet( data, cell, cell + grid.cols, goal, grid, landmarks, listener );
+			}
+
+			listener.onEvent( MazeEvent.CLOSE, cell );
+		}
+
+		if( !pathWasFound ) return null;
+
+		return reconstructPath( goal, data.g[ goal ], data.parent, listener );
+	}
+
+
+	/**
+	 * Tries to add the cell specified by the <code>openCell</code> to the A* open set.
+	 * <p> The grid border is closed, so the cell is always inside the maze bounds.
+	 *
+	 * @param data      the search data with the open set (A*)
+	 * @param parent    the parent cell to be saved in a child and to be used in g()
+	 * @param openCell  the new cell to be added to the open set
+	 * @param goal      the goal cell
+	 * @param grid      the labyrinth
+	 * @param landmarks the landmarks of the grid, null for the Manhattan heuristic
+	 * @param listener  receives the progress
+	 * @return true if the goal has been reached
+	 * @throws InterruptedException
+	 */
+	private static boolean tryToAddToOpenSet( SearchData data, int parent, int openCell, int goal, Grid grid,
+	                                          Landmarks landmarks, MazeListener listener )
+			throws InterruptedException {
+
+		if( data.isClosed( openCell ) ) return false;
+
+		int[] g = data.g;
+		IndexedHeap openSet = data.openSet;
+
+		// Update the cell if it has already been added to the open set
+		if( openSet.contains( openCell ) ) {
+
+			// AND if the new g() value is better than the older one
+			if( g[ parent ] + 1 < g[ openCell ] ) {
+				int h = openSet.key( openCell ) - g[ openCell ];
+				g[ openCell ] = g[ parent ] + 1;
+				data.parent[ openCell ] = parent;
+				openSet.decreaseKey( openCell, g[ openCell ] + h );
+			}
+			return false;
+		}
+
+		data.parent[ openCell ] = parent;
+		g[ openCell ] = g[ parent ] + 1;
+
+		// Manhattan distance, or the landmark bound which is never less than it
+		int h = ( landmarks != null ) ? landmarks.estimate( openCell, goal ) : grid.manhattan( goal, openCell );
+		openSet.add( openCell, g[ openCell ] + h, h );
+		listener.onEvent( MazeEvent.OPEN, openCell );
+
+		return openCell == goal;
+	}
+
+
+	/**
+	 * Reconstructs the path joining the start and the goal.
+	 *
+	 * @param goal     the goal cell
+	 * @param length   the length of the path
+	 * @param parents  parent cells, -1 for the start
+	 * @param listener receives the path cells from the goal to the start
+	 * @return cells of the path from the start to the goal
+	 * @throws InterruptedException
+	 */
+	static int[] reconstructPath( int goal, int length, int[] parents, MazeListener listener )
+			throws InterruptedException {
+		int[] path = new int[ length + 1 ];
+		int stage = goal;
+		for( int i = length; i >= 0; i-- ) {
+			path[ i ] = stage;
+			listener.onEvent( MazeEvent.PATH, stage );
+			stage = parents[ stage ];
+		}
+		return path;
+	}
+}
@@ -0,0 +1,41 @@
+package maze.core;
+
+
+/**
+ * The A star path finder keeping its search data between the queries,
+ * so the repeated queries allocate only the found paths.
+ */
+final class AStarFinder implements PathFinder {
+	private final Grid grid;
+	private final Landmarks landmarks;
+	private final SearchData data;
+
+
+	/**
+	 * @param grid      the labyrinth to be solved
+	 * @param landmarks the landmarks of the grid, null for the Manhattan heuristic
+	 */
+	AStarFinder( Grid grid, Landmarks landmarks ) {
+		this.grid = grid;
+		this.landmarks = landmarks;
+		data = new SearchData( grid.size() );
+	}
+
+
+	@Override
+	public int[] findPath( int start, int goal, MazeListener listener ) throws InterruptedException {
+		return AStar.findPath( grid, start, goal, landmarks, data, listener );
+	}
+
+
+	@Override
+	public SearchStats stats() {
+		return SearchStats.of( data.openSet );
+	}
+
+
+	@Override
+	public PathFinder copy() {
+		return new AStarFinder( grid, landmarks );
+	}
+}
@@ -0,0 +1,99 @@
+package maze.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Solves many queries in one maze concurrently.
+ * <p> The preprocessing of the search mode is made once, each worker gets
+ * its own copy of the path finder with its own search data. The workers
+ * take the queries one by one, so a long search doesn't hold up the others.
+ * <p> The grid is only read, it mustn't be changed while the batch is solved.
+ * <p> Each query is recorded in <code>Metrics</code>.
+ */
+public final class BatchSolver {
+	private final Grid grid;
+	private final SearchMode mode;
+	private final PathFinder finder;
+
+
+	/**
+	 * Prepares the search mode for the grid.
+	 *
+	 * @param grid the labyrinth to be solved
+	 * @param mode the pathfinding algorithm
+	 */
+	public BatchSolver( Grid grid, SearchMode mode ) {
+		this.grid = grid;
+		this.mode = mode;
+		finder = mode.create( grid );
+	}
+
+
+	/**
+	 * Finds the shortest paths between the pairs of cells.
+	 *
+	 * @param starts   the start cells
+	 * @param goals    the goal cells, one for each start
+	 * @param executor runs the workers
+	 * @param workers  the number of the workers
+	 * @return cells of the path from the i-th start to the i-th goal
+	 * (both inclusive), null if there is no path, in the order of the queries
+	 * @throws InterruptedException if the current thread has been interrupted while waiting
+	 */
+	public int[][] solve( int[] starts, int[] goals, ExecutorService executor, int workers )
+			throws InterruptedException {
+		if( starts.length != goals.length ) {
+			throw new IllegalArgumentException( "Different numbers of starts and goals: " +
+					starts.length + " and " + goals.length );
+		}
+
+		int[][] paths = new int[ starts.length ][];
+		AtomicInteger next = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<>( workers );
+		for( int i = 0; i < workers; i++ ) {
+			PathFinder worker = finder.copy();
+			tasks.add( () -> {
+				for( int query = next.getAndIncrement(); query < starts.length; query = next.getAndIncrement() ) {
+					SearchEvent event = new SearchEvent();
+					event.begin();
+					long begin = System.nanoTime();
+					paths[ query ] = worker.findPath( starts[ query ], goals[ query ], MazeListener.SILENT );
+					Metrics.search( event, mode, grid, starts[ query ], goals[ query ], paths[ query ],
+							worker.stats(), System.nanoTime() - begin );
+				}
+				return null;
+			} );
+		}
+
+		// invokeAll waits for all the tasks and publishes their results
+		for( Future<Void> future : executor.invokeAll( tasks ) ) {
+			try {
+				future.get();
+			} catch( ExecutionException e ) {
+				if( e.getCause() instanceof RuntimeException ) throw ( RuntimeException ) e.getCause();
+				if( e.getCause() instanceof Error ) throw ( Error ) e.getCause();
+				throw new AssertionError( e.getCause() );
+			}
+		}
+		return paths;
+	}
+
+
+	/**
+	 * @return the lengths of the paths, -1 if there is no path
+	 */
+	public static int[] lengths( int[][] paths ) {
+		int[] lengths = new int[ paths.length ];
+		for( int i = 0; i < paths.length; i++ ) {
+			lengths[ i ] = ( paths[ i ] != null ) ? paths[ i ].length - 1 : -1;
+		}
+		return lengths;
+	}
+}
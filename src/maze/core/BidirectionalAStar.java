@@ -0,0 +1,179 @@
+package maze.core;
+
+/**
+ * The bidirectional A star.
+ * <p> Runs the forward search from the start to the goal and the backward one
+ * from the goal to the start, expanding the side with the smaller open set.
+ * <p> Both searches use the average potential of the Manhattan distances
+ * to the goal <code>hg</code> and to the start <code>hs</code>:
+ * <code>(hg - hs) / 2</code> forward and <code>(hs - hg) / 2</code> backward.
+ * The potentials are consistent and sum up to zero, so both searches run Dijkstra
+ * on the same reduced edge costs. The keys are doubled to keep them integer:
+ * <code>2 * g + hg - hs</code> forward and <code>2 * g + hs - hg</code> backward.
+ * <p> <code>best</code> is the length of the shortest path found so far
+ * through a cell reached by both searches. The search stops as soon as the sum
+ * of the smallest keys of the two open sets is not less than <code>2 * best</code>,
+ * the usual stopping rule of bidirectional Dijkstra:
+ * no path through the unexpanded cells can be shorter.
+ * <p> See A. V. Goldberg, C. Harrelson, "Computing the Shortest Path:
+ * A* Search Meets Graph Theory".
+ */
+public final class BidirectionalAStar implements PathFinder {
+	private static final int FORWARD = 0;
+	private static final int BACKWARD = 1;
+
+	private final Grid grid;
+
+	// Per-search data, [FORWARD] and [BACKWARD]
+	private final SearchData[] data;
+	private final int[][] g;
+	private final int[][] parent;
+	private final IndexedHeap[] openSet;
+	private int best;
+	private int meeting;
+
+
+	/**
+	 * @param grid the labyrinth to be solved
+	 */
+	public BidirectionalAStar( Grid grid ) {
+		this.grid = grid;
+		data = new SearchData[] { new SearchData( grid.size() ), new SearchData( grid.size() ) };
+		g = new int[][] { data[ FORWARD ].g, data[ BACKWARD ].g };
+		parent = new int[][] { data[ FORWARD ].parent, data[ BACKWARD ].parent };
+		openSet = new IndexedHeap[] { data[ FORWARD ].openSet, data[ BACKWARD ].openSet };
+	}
+
+
+	@Override
+	public int[] findPath( int start, int goal, MazeListener listener ) throws InterruptedException {
+		data[ FORWARD ].reset();
+		data[ BACKWARD ].reset();
+		best = Integer.MAX_VALUE;
+		meeting = -1;
+
+		if( start == goal ) {
+			listener.onEvent( MazeEvent.PATH, start );
+			return new int[] { start };
+		}
+
+		int[] ends = { start, goal };
+		for( int side = FORWARD; side <= BACKWARD; side++ ) {
+			data[ side ].reach( ends[ side ] );
+			g[ side ][ ends[ side ] ] = 0;
+			parent[ side ][ ends[ side ] ] = -1;
+			openSet[ side ].add( ends[ side ], potential( ends[ side ], ends[ 1 - side ], ends[ side ] ),
+					grid.manhattan( ends[ side ], ends[ 1 - side ] ) );
+		}
+
+		while( !openSet[ FORWARD ].isEmpty() && !openSet[ BACKWARD ].isEmpty() ) {
+			int topForward = openSet[ FORWARD ].key( openSet[ FORWARD ].peek() );
+			int topBackward = openSet[ BACKWARD ].key( openSet[ BACKWARD ].peek() );
+			if( best != Integer.MAX_VALUE && topForward + topBackward >= 2 * best ) break;
+
+			int side = ( openSet[ FORWARD ].size() <= openSet[ BACKWARD ].size() ) ? FORWARD : BACKWARD;
+			expand( side, ends[ 1 - side ], ends[ side ], listener );
+		}
+
+		if( meeting == -1 ) return null;
+
+		return reconstructPath( listener );
+	}
+
+
+	@Override
+	public SearchStats stats() {
+		return SearchStats.of( openSet );
+	}
+
+
+	@Override
+	public PathFinder copy() {
+		return new BidirectionalAStar( grid );
+	}
+
+
+	/**
+	 * Moves the best cell of the open set to the closed one and relaxes its neighbors.
+	 *
+	 * @param side     <code>FORWARD</code> or <code>BACKWARD</code>
+	 * @param target   the cell the search is heading to
+	 * @param source   the cell the search has started from
+	 * @param listener receives the progress
+	 * @throws InterruptedException
+	 */
+	private void expand( int side, int target, int source, MazeListener listener ) throws InterruptedException {
+		int cell = openSet[ side ].poll();
+		data[ side ].close( cell );
+
+		if( !grid.hasTopWall( cell ) ) relax( side, cell, cell - grid.cols, target, source, listener );
+		if( !grid.hasLeftWall( cell ) ) relax( side, cell, cell - 1, target, source, listener );
+		if( !grid.hasRightWall( cell ) ) relax( side, cell, cell + 1, target, source, listener );
+		if( !grid.hasBottomWall( cell ) ) relax( side, cell, cell + grid.cols, target, source, listener );
+
+		listener.onEvent( ( side == FORWARD ) ? MazeEvent.CLOSE : MazeEvent.CLOSE_BACKWARD, cell );
+	}
+
+
+	/**
+	 * Tries to improve the path to the neighbor through the cell
+	 * and the best path through the neighbor.
+	 */
+	private void relax( int side, int cell, int neighbor, int target, int source, MazeListener listener )
+			throws InterruptedException {
+		if( data[ side ].isClosed( neighbor ) ) return;
+
+		int newG = g[ side ][ cell ] + 1;
+		IndexedHeap open = openSet[ side ];
+		if( !data[ side ].isReached( neighbor ) ) {
+			data[ side ].reach( neighbor );
+			g[ side ][ neighbor ] = newG;
+			parent[ side ][ neighbor ] = cell;
+			open.add( neighbor, 2 * newG + potential( neighbor, target, source ), grid.manhattan( neighbor, target ) );
+			listener.onEvent( ( side == FORWARD ) ? MazeEvent.OPEN : MazeEvent.OPEN_BACKWARD, neighbor );
+		} else if( newG < g[ side ][ neighbor ] ) {
+			open.decreaseKey( neighbor, open.key( neighbor ) - 2 * ( g[ side ][ neighbor ] - newG ) );
+			g[ side ][ neighbor ] = newG;
+			parent[ side ][ neighbor ] = cell;
+		} else {
+			return;
+		}
+
+		if( data[ 1 - side ].isReached( neighbor ) && newG + g[ 1 - side ][ neighbor ] < best ) {
+			best = newG + g[ 1 - side ][ neighbor ];
+			meeting = neighbor;
+		}
+	}
+
+
+	/**
+	 * Joins the forward path from the start to the meeting cell
+	 * and the backward one from the meeting cell to the goal.
+	 *
+	 * @return cells of the path from the start to the goal
+	 */
+	private int[] reconstructPath( MazeListener listener ) throws InterruptedException {
+		int[] path = new int[ best + 1 ];
+		int i = g[ FORWARD ][ meeting ];
+		for( int stage = meeting; stage != -1; stage = parent[ FORWARD ][ stage ] ) {
+			path[ i-- ] = stage;
+		}
+		i = g[ FORWARD ][ meeting ];
+		for( int stage = meeting; stage != -1; stage = parent[ BACKWARD ][ stage ] ) {
+			path[ i++ ] = stage;
+		}
+		for( i = best; i >= 0; i-- ) {
+			listener.onEvent( MazeEvent.PATH, path[ i ] );
+		}
+		return path;
+	}
+
+
+	/**
+	 * @return the doubled average potential of the cell
+	 * for the search from the source to the target
+	 */
+	private int potential( int cell, int target, int source ) {
+		return grid.manhattan( cell, target ) - grid.manhattan( cell, source );
+	}
+}
@@ -0,0 +1,175 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The breadth-first search computing the distances from a source to all the cells,
+ * 64 cells at a time.
+ * <p> Every move costs 1, so the distances are the levels of the breadth-first search.
+ * The frontier and the visited cells are kept as bitboards: bit <code>cell % 64</code>
+ * of word <code>cell / 64</code>. The walls are read into two more bitboards of the cells
+ * with an open right and an open bottom side. A whole word of the frontier moves at once:
+ * right and left by shifting it by 1, down and up by shifting it by <code>cols</code>,
+ * masked by the open sides and the visited cells.
+ * <p> The frontier of a maze is narrow, so only its nonzero words are expanded
+ * instead of sweeping the whole bitboard on every level. The distances are written
+ * by walking the set bits of the frontier.
+ * <p> The walls are read at the start of each search, so the searches see the current ones.
+ * An instance keeps its bitboards between the calls and mustn't be used by several threads at once.
+ */
+public final class BitParallelBfs {
+	private final Grid grid;
+	private final int words;
+	private final long[] openRight;
+	private final long[] openBottom;
+	private final long[] visited;
+	private long[] frontier;
+	private long[] next;
+
+	// The nonzero words of the frontier and of the next one
+	private int[] active;
+	private int[] nextActive;
+
+
+	/**
+	 * @param grid the labyrinth to be searched
+	 */
+	public BitParallelBfs( Grid grid ) {
+		this.grid = grid;
+		words = ( grid.size() + 63 ) >>> 6;
+		openRight = new long[ words ];
+		openBottom = new long[ words ];
+		visited = new long[ words ];
+		frontier = new long[ words ];
+		next = new long[ words ];
+		active = new int[ words ];
+		nextActive = new int[ words ];
+	}
+
+
+	/**
+	 * @param source the cell to measure the distances from
+	 * @return the distances from the source to every cell, -1 for the unreachable cells
+	 */
+	public int[] distances( int source ) {
+		int[] distance = new int[ grid.size() ];
+		distances( source, distance );
+		return distance;
+	}
+
+
+	/**
+	 * Fills the distances from the source to every cell.
+	 *
+	 * @param source   the cell to measure the distances from
+	 * @param distance receives the distances, -1 for the unreachable cells
+	 * @return the largest distance
+	 */
+	public int distances( int source, int[] distance ) {
+		readWalls();
+		Arrays.fill( visited, 0L );
+
+		visited[ source >>> 6 ] = frontier[ source >>> 6 ] = 1L << source;
+		active[ 0 ] = source >>> 6;
+		int count = 1;
+		int level = 0;
+		for( ; ; level++ ) {
+			int nextCount = 0;
+			for( int k = 0; k < count; k++ ) {
+				int i = active[ k ];
+				long bits = frontier[ i ];
+				frontier[ i ] = 0L;
+
+				for( long rest = bits; rest != 0; rest &= rest - 1 ) {
+					distance[ ( i << 6 ) + Long.numberOfTrailingZeros( rest ) ] = level;
+				}
+				nextCount = expand( i, bits, nextCount );
+			}
+			if( nextCount == 0 ) break;
+
+			long[] bitboard = frontier;
+			frontier = next;
+			next = bitboard;
+			int[] list = active;
+			active = nextActive;
+			nextActive = list;
+			count = nextCount;
+		}
+
+		// The cells never visited are unreachable, so each distance is written once
+		for( int i = 0; i < words; i++ ) {
+			long unvisited = ~visited[ i ];
+			if( i == words - 1 && ( grid.size() & 63 ) != 0 ) unvisited &= ( 1L << grid.size() ) - 1;
+			for( ; unvisited != 0; unvisited &= unvisited - 1 ) {
+				distance[ ( i << 6 ) + Long.numberOfTrailingZeros( unvisited ) ] = -1;
+			}
+		}
+		return level;
+	}
+
+
+	/**
+	 * @return the size of the bitboards and the lists of words in bytes
+	 */
+	public long bytes() {
+		return 5L * Long.BYTES * words + 2L * Integer.BYTES * words;
+	}
+
+
+	/**
+	 * Moves a word of the frontier in the four directions.
+	 *
+	 * @return the new number of the nonzero words of the next frontier
+	 */
+	private int expand( int i, long bits, int count ) {
+		int shift = grid.cols & 63;
+		int offset = grid.cols >>> 6;
+
+		// Right and left inside the word: a cell moves to the next bit if its right side is open,
+		// to the previous bit if the right side of the target is open
+		long right = bits & openRight[ i ];
+		count = visit( i, ( right << 1 ) | ( ( bits >>> 1 ) & openRight[ i ] ), count );
+		if( right < 0 ) count = visit( i + 1, 1L, count );
+		if( ( bits & 1 ) != 0 && i > 0 ) count = visit( i - 1, Long.MIN_VALUE & openRight[ i - 1 ], count );
+
+		// Down: a cell moves cols bits higher if its bottom side is open
+		long down = bits & openBottom[ i ];
+		if( down != 0 ) {
+			if( i + offset < words ) count = visit( i + offset, down << shift, count );
+			if( shift != 0 && i + offset + 1 < words ) count = visit( i + offset + 1, down >>> ( 64 - shift ), count );
+		}
+
+		// Up: the target cell must have its bottom side open
+		if( i - offset >= 0 ) {
+			count = visit( i - offset, ( bits >>> shift ) & openBottom[ i - offset ], count );
+		}
+		if( shift != 0 && i - offset - 1 >= 0 ) {
+			count = visit( i - offset - 1, ( bits << ( 64 - shift ) ) & openBottom[ i - offset - 1 ], count );
+		}
+		return count;
+	}
+
+
+	private int visit( int i, long bits, int count ) {
+		if( bits == 0 ) return count;
+		bits &= ~visited[ i ];
+		if( bits == 0 ) return count;
+		visited[ i ] |= bits;
+		if( next[ i ] == 0 ) nextActive[ count++ ] = i;
+		next[ i ] |= bits;
+		return count;
+	}
+
+
+	/**
+	 * Reads the walls into the bitboards of the open sides.
+	 */
+	private void readWalls() {
+		grid.readWalls( openRight, openBottom );
+		for( int i = 0; i < words; i++ ) {
+			openRight[ i ] = ~openRight[ i ];
+			openBottom[ i ] = ~openBottom[ i ];
+		}
+	}
+}
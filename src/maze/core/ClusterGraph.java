@@ -0,0 +1,527 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * Hierarchical pathfinding (HPA*) over square clusters of the grid.
+ * <p> For more information see
+ * <a href="https://webdocs.cs.ualberta.ca/~mmueller/ps/hpastar.pdf">Near Optimal Hierarchical Path-Finding</a>
+ * <p> The nodes of the abstract graph are the border cells of the clusters having
+ * an open side to another cluster. Two nodes of adjacent clusters are joined through
+ * that side by an edge of length 1, two nodes of the same cluster are joined by
+ * an edge weighted by the length of the shortest path between them inside the cluster.
+ * <p> A maze has no wide entrances, so every open side is a node of its own,
+ * and the distances inside the clusters are exact. So the found paths are shortest,
+ * unlike the ones of HPA* on open grids. An edge whose shortest path passes through
+ * another node of the cluster is left out: the path along the other node has
+ * the same length. That keeps a few edges per node, as the clusters of a maze are trees.
+ * <p> A query searches the clusters of the start and the goal for the ways to their nodes,
+ * then runs A* on the abstract graph with the Manhattan heuristic and reports only
+ * the nodes as opened and closed. The clusters on the found route are searched again
+ * to refine its edges into cells.
+ * <p> The nodes of a cluster are numbered by the positions on its border, so a cluster
+ * is rebuilt with <code>update</code> without renumbering the others when its walls change.
+ */
+public final class ClusterGraph implements PathFinder {
+	public static final int DEFAULT_SIZE = 32;
+
+	private final Grid grid;
+	private final int size;
+	private final int clusterCols;
+	private final int slots;
+
+	// Edges inside each cluster by the positions on its border:
+	// target[ cluster ][ start[ cluster ][ slot ] ... start[ cluster ][ slot + 1 ] - 1 ]
+	private final int[][] edgeStart;
+	private final int[][] edgeTarget;
+	private final int[][] edgeLength;
+	private final int[] clusterNodes;
+
+	// Per-search data, two more nodes for the start and the goal
+	private final SearchData data;
+	private final int[] g;
+	private final int[] parent;
+	private final IndexedHeap openSet;
+	private final Tree startTree;
+	private final Tree goalTree;
+	private final Tree tree;
+
+
+	/**
+	 * Builds the abstract graph.
+	 *
+	 * @param grid the labyrinth to be solved
+	 * @param size the number of cells on a side of a cluster
+	 */
+	public ClusterGraph( Grid grid, int size ) {
+		if( size < 2 ) throw new IllegalArgumentException( "Too small cluster: " + size );
+		this.grid = grid;
+		this.size = size;
+		clusterCols = ( grid.cols + size - 1 ) / size;
+		slots = 4 * size;
+		int clusters = ( ( grid.rows + size - 1 ) / size ) * clusterCols;
+		if( ( long ) clusters * slots + 2 > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException( "Too small cluster for the grid: " + size );
+		}
+
+		edgeStart = new int[ clusters ][];
+		edgeTarget = new int[ clusters ][];
+		edgeLength = new int[ clusters ][];
+		clusterNodes = new int[ clusters ];
+
+		data = new SearchData( clusters * slots + 2 );
+		g = data.g;
+		parent = data.parent;
+		openSet = data.openSet;
+		startTree = new Tree();
+		goalTree = new Tree();
+		tree = new Tree();
+
+		for( int cluster = 0; cluster < clusters; cluster++ ) {
+			build( cluster );
+		}
+	}
+
+
+	/**
+	 * Creates a copy sharing the abstract graph.
+	 */
+	private ClusterGraph( ClusterGraph other ) {
+		grid = other.grid;
+		size = other.size;
+		clusterCols = other.clusterCols;
+		slots = other.slots;
+		edgeStart = other.edgeStart;
+		edgeTarget = other.edgeTarget;
+		edgeLength = other.edgeLength;
+		clusterNodes = other.clusterNodes;
+
+		data = new SearchData( edgeStart.length * slots + 2 );
+		g = data.g;
+		parent = data.parent;
+		openSet = data.openSet;
+		startTree = new Tree();
+		goalTree = new Tree();
+		tree = new Tree();
+	}
+
+
+	/**
+	 * Rebuilds the clusters touched by the walls of the cell.
+	 * <p> Must be called after the right or the bottom wall of the cell has been
+	 * removed or restored. The copies share the graph, so they mustn't be searching meanwhile.
+	 *
+	 * @param cell the cell whose wall has been changed
+	 */
+	public void update( int cell ) {
+		int cluster = clusterOf( cell );
+		build( cluster );
+		if( grid.col( cell ) < grid.cols - 1 && clusterOf( cell + 1 ) != cluster ) {
+			build( clusterOf( cell + 1 ) );
+		}
+		if( grid.row( cell ) < grid.rows - 1 && clusterOf( cell + grid.cols ) != cluster ) {
+			build( clusterOf( cell + grid.cols ) );
+		}
+	}
+
+
+	/**
+	 * @return the number of the nodes of the abstract graph
+	 */
+	public int nodes() {
+		int nodes = 0;
+		for( int count : clusterNodes ) {
+			nodes += count;
+		}
+		return nodes;
+	}
+
+
+	/**
+	 * @return the number of the edges inside the clusters, each counted in both directions
+	 */
+	public int edges() {
+		int edges = 0;
+		for( int[] targets : edgeTarget ) {
+			edges += targets.length;
+		}
+		return edges;
+	}
+
+
+	/**
+	 * @return the approximate size of the abstract graph and the search data in bytes
+	 */
+	public long bytes() {
+		long bytes = 0;
+		for( int cluster = 0; cluster < edgeStart.length; cluster++ ) {
+			bytes += 4L * ( edgeStart[ cluster ].length + edgeTarget[ cluster ].length + edgeLength[ cluster ].length );
+		}
+		bytes += 4L * 7 * g.length; // Costs, parents, stamps and the four arrays of the heap
+		bytes += 3L * tree.bytes();
+		return bytes;
+	}
+
+
+	@Override
+	public int[] findPath( int start, int goal, MazeListener listener ) throws InterruptedException {
+		if( start == goal ) {
+			listener.onEvent( MazeEvent.PATH, start );
+			return new int[] { start };
+		}
+
+		int startNode = g.length - 2;
+		int goalNode = g.length - 1;
+		int startCluster = clusterOf( start );
+		int goalCluster = clusterOf( goal );
+		startTree.grow( startCluster, start, false );
+		goalTree.grow( goalCluster, goal, false );
+		data.reset();
+
+		g[ startNode ] = 0;
+		parent[ startNode ] = -1;
+		openSet.add( startNode, grid.manhattan( start, goal ), grid.manhattan( start, goal ) );
+
+		while( !openSet.isEmpty() ) {
+			int node = openSet.poll();
+			data.close( node );
+			if( node == goalNode ) break;
+
+			int cell;
+			if( node == startNode ) {
+				cell = start;
+				for( int slot = 0; slot < slots; slot++ ) {
+					int next = cellOf( startCluster, slot );
+					if( next != -1 && isNode( next ) && startTree.isReached( next ) ) {
+						relax( node, startCluster * slots + slot, startTree.distance( next ), goal, listener );
+					}
+				}
+				if( startCluster == goalCluster && startTree.isReached( goal ) ) {
+					relax( node, goalNode, startTree.distance( goal ), goal, listener );
+				}
+			} else {
+				cell = cellOf( node );
+				int cluster = node / slots;
+				int slot = node % slots;
+				int[] first = edgeStart[ cluster ];
+				for( int i = first[ slot ]; i < first[ slot + 1 ]; i++ ) {
+					relax( node, cluster * slots + edgeTarget[ cluster ][ i ], edgeLength[ cluster ][ i ], goal, listener );
+				}
+				if( !grid.hasTopWall( cell ) && clusterOf( cell - grid.cols ) != cluster ) {
+					relax( node, nodeOf( cell - grid.cols ), 1, goal, listener );
+				}
+				if( !grid.hasLeftWall( cell ) && clusterOf( cell - 1 ) != cluster ) {
+					relax( node, nodeOf( cell - 1 ), 1, goal, listener );
+				}
+				if( !grid.hasRightWall( cell ) && clusterOf( cell + 1 ) != cluster ) {
+					relax( node, nodeOf( cell + 1 ), 1, goal, listener );
+				}
+				if( !grid.hasBottomWall( cell ) && clusterOf( cell + grid.cols ) != cluster ) {
+					relax( node, nodeOf( cell + grid.cols ), 1, goal, listener );
+				}
+				if( cluster == goalCluster && goalTree.isReached( cell ) ) {
+					relax( node, goalNode, goalTree.distance( cell ), goal, listener );
+				}
+			}
+
+			listener.onEvent( MazeEvent.CLOSE, cell );
+		}
+
+		if( !data.isClosed( goalNode ) ) return null;
+
+		return reconstructPath( start, goal, listener );
+	}
+
+
+	@Override
+	public SearchStats stats() {
+		return SearchStats.of( openSet );
+	}
+
+
+	@Override
+	public PathFinder copy() {
+		return new ClusterGraph( this );
+	}
+
+
+	/**
+	 * Tries to improve the path to the neighbor along an edge.
+	 */
+	private void relax( int node, int neighbor, int length, int goal, MazeListener listener )
+			throws InterruptedException {
+		if( data.isClosed( neighbor ) ) return;
+
+		int newG = g[ node ] + length;
+		if( openSet.contains( neighbor ) ) {
+			if( newG >= g[ neighbor ] ) return;
+			openSet.decreaseKey( neighbor, openSet.key( neighbor ) - ( g[ neighbor ] - newG ) );
+		} else {
+			int cell = ( neighbor == g.length - 1 ) ? goal : cellOf( neighbor );
+			int h = grid.manhattan( cell, goal );
+			openSet.add( neighbor, newG + h, h );
+			listener.onEvent( MazeEvent.OPEN, cell );
+		}
+		g[ neighbor ] = newG;
+		parent[ neighbor ] = node;
+	}
+
+
+	/**
+	 * Refines the edges of the found route into the cells.
+	 *
+	 * @return cells of the path from the start to the goal
+	 */
+	private int[] reconstructPath( int start, int goal, MazeListener listener ) throws InterruptedException {
+		int startNode = g.length - 2;
+		int goalNode = g.length - 1;
+		int[] path = new int[ g[ goalNode ] + 1 ];
+		int i = path.length - 1;
+		for( int node = goalNode; parent[ node ] != -1; node = parent[ node ] ) {
+			int from = ( parent[ node ] == startNode ) ? start : cellOf( parent[ node ] );
+			int to = ( node == goalNode ) ? goal : cellOf( node );
+			int length = g[ node ] - g[ parent[ node ] ];
+			if( node == goalNode ) {
+				goalTree.walk( from, path, i - length, 1 );
+			} else if( parent[ node ] == startNode ) {
+				startTree.walk( to, path, i, -1 );
+			} else if( length == 1 && clusterOf( from ) != clusterOf( to ) ) {
+				path[ i ] = to;
+				path[ i - 1 ] = from;
+			} else {
+				tree.grow( clusterOf( to ), to, false );
+				tree.walk( from, path, i - length, 1 );
+			}
+			i -= length;
+		}
+		for( i = path.length - 1; i >= 0; i-- ) {
+			listener.onEvent( MazeEvent.PATH, path[ i ] );
+		}
+		return path;
+	}
+
+
+	/**
+	 * Finds the nodes of the cluster and the edges between them.
+	 */
+	private void build( int cluster ) {
+		int[] start = new int[ slots + 1 ];
+		IntList targets = new IntList( slots );
+		IntList lengths = new IntList( slots );
+		int nodes = 0;
+		for( int slot = 0; slot < slots; slot++ ) {
+			start[ slot ] = targets.size();
+			int cell = cellOf( cluster, slot );
+			if( cell == -1 || !isNode( cell ) ) continue;
+
+			nodes++;
+			tree.grow( cluster, cell, true );
+			for( int other = 0; other < slots; other++ ) {
+				int next = cellOf( cluster, other );
+				if( other != slot && next != -1 && isNode( next ) && tree.isReached( next ) && !tree.isVia( next ) ) {
+					targets.add( other );
+					lengths.add( tree.distance( next ) );
+				}
+			}
+		}
+		start[ slots ] = targets.size();
+		edgeStart[ cluster ] = start;
+		edgeTarget[ cluster ] = targets.toArray();
+		edgeLength[ cluster ] = lengths.toArray();
+		clusterNodes[ cluster ] = nodes;
+	}
+
+
+	private int clusterOf( int cell ) {
+		return grid.row( cell ) / size * clusterCols + grid.col( cell ) / size;
+	}
+
+
+	/**
+	 * @return true if the cell has an open side to another cluster
+	 */
+	private boolean isNode( int cell ) {
+		int row = grid.row( cell ) % size;
+		int col = grid.col( cell ) % size;
+		return row == 0 && !grid.hasTopWall( cell ) ||
+				col == 0 && !grid.hasLeftWall( cell ) ||
+				col == size - 1 && !grid.hasRightWall( cell ) ||
+				row == size - 1 && !grid.hasBottomWall( cell );
+	}
+
+
+	/**
+	 * @return the node of the border cell
+	 */
+	private int nodeOf( int cell ) {
+		int top = grid.row( cell ) / size * size;
+		int left = grid.col( cell ) / size * size;
+		int row = grid.row( cell ) - top;
+		int col = grid.col( cell ) - left;
+		int slot;
+		if( row == 0 ) {
+			slot = col;
+		} else if( row == Math.min( size, grid.rows - top ) - 1 ) {
+			slot = size + col;
+		} else if( col == 0 ) {
+			slot = 2 * size + row;
+		} else {
+			slot = 3 * size + row;
+		}
+		return clusterOf( cell ) * slots + slot;
+	}
+
+
+	private int cellOf( int node ) {
+		return cellOf( node / slots, node % slots );
+	}
+
+
+	/**
+	 * @return the cell at the position on the border of the cluster,
+	 * -1 if there is no such position or it is another position of the same cell
+	 */
+	private int cellOf( int cluster, int slot ) {
+		int top = cluster / clusterCols * size;
+		int left = cluster % clusterCols * size;
+		int height = Math.min( size, grid.rows - top );
+		int width = Math.min( size, grid.cols - left );
+		int position = slot % size;
+		switch( slot / size ) {
+			case 0: // Top
+				return ( position < width ) ? grid.index( top, left + position ) : -1;
+			case 1: // Bottom
+				return ( height > 1 && position < width ) ? grid.index( top + height - 1, left + position ) : -1;
+			case 2: // Left
+				return ( position > 0 && position < height - 1 ) ? grid.index( top + position, left ) : -1;
+			default: // Right
+				return ( width > 1 && position > 0 && position < height - 1 ) ?
+						grid.index( top + position, left + width - 1 ) : -1;
+		}
+	}
+
+
+	/**
+	 * The breadth-first search tree of a single cluster.
+	 * <p> The cells are addressed inside the cluster, so the tree takes
+	 * the size of a cluster regardless of the grid size.
+	 */
+	private final class Tree {
+		private final int[] distance = new int[ size * size ];
+		private final int[] parent = new int[ size * size ];
+		private final boolean[] via = new boolean[ size * size ];
+		private final int[] queue = new int[ size * size ];
+		private final int[] stamps = new int[ size * size ];
+		private int stamp = 0;
+		private int source;
+		private int top;
+		private int left;
+		private int height;
+		private int width;
+
+
+		/**
+		 * Searches the cluster from the source cell.
+		 *
+		 * @param cluster the cluster of the source
+		 * @param source  the cell the tree grows from
+		 * @param via     true to mark the cells reached through another node
+		 */
+		void grow( int cluster, int source, boolean via ) {
+			this.source = source;
+			top = cluster / clusterCols * size;
+			left = cluster % clusterCols * size;
+			height = Math.min( size, grid.rows - top );
+			width = Math.min( size, grid.cols - left );
+			if( stamp == Integer.MAX_VALUE ) {
+				Arrays.fill( stamps, 0 );
+				stamp = 0;
+			}
+			stamp++;
+
+			int head = 0;
+			int tail = 0;
+			int first = local( source );
+			stamps[ first ] = stamp;
+			distance[ first ] = 0;
+			parent[ first ] = -1;
+			this.via[ first ] = false;
+			queue[ tail++ ] = first;
+			while( head < tail ) {
+				int item = queue[ head++ ];
+				int row = item / size;
+				int col = item % size;
+				int cell = grid.index( top + row, left + col );
+				boolean through = this.via[ item ] || via && cell != source && isNode( cell );
+				if( row > 0 && !grid.hasTopWall( cell ) ) tail = reach( item, item - size, through, tail );
+				if( col > 0 && !grid.hasLeftWall( cell ) ) tail = reach( item, item - 1, through, tail );
+				if( col < width - 1 && !grid.hasRightWall( cell ) ) tail = reach( item, item + 1, through, tail );
+				if( row < height - 1 && !grid.hasBottomWall( cell ) ) tail = reach( item, item + size, through, tail );
+			}
+		}
+
+
+		private int reach( int item, int next, boolean through, int tail ) {
+			if( stamps[ next ] == stamp ) return tail;
+			stamps[ next ] = stamp;
+			distance[ next ] = distance[ item ] + 1;
+			parent[ next ] = item;
+			via[ next ] = through;
+			queue[ tail ] = next;
+			return tail + 1;
+		}
+
+
+		/**
+		 * @return true if the cell of the cluster has been reached from the source
+		 */
+		boolean isReached( int cell ) {
+			return stamps[ local( cell ) ] == stamp;
+		}
+
+
+		/**
+		 * @return the distance of the reached cell from the source
+		 */
+		int distance( int cell ) {
+			return distance[ local( cell ) ];
+		}
+
+
+		/**
+		 * @return true if the path from the source to the reached cell passes through another node
+		 */
+		boolean isVia( int cell ) {
+			return via[ local( cell ) ];
+		}
+
+
+		/**
+		 * Writes the cells from the reached cell to the source into the path.
+		 *
+		 * @param cell the first cell
+		 * @param path the path
+		 * @param i    the position of the first cell in the path
+		 * @param step the direction of writing, 1 or -1
+		 */
+		void walk( int cell, int[] path, int i, int step ) {
+			for( int item = local( cell ); item != -1; item = parent[ item ], i += step ) {
+				path[ i ] = grid.index( top + item / size, left + item % size );
+			}
+		}
+
+
+		long bytes() {
+			return 17L * size * size;
+		}
+
+
+		/**
+		 * @return the index of the cell of the cluster inside the tree
+		 */
+		private int local( int cell ) {
+			return ( grid.row( cell ) - top ) * size + grid.col( cell ) - left;
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package maze.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The distances from every cell to one goal with the next step towards it.
+ * <p> Computed once by the breadth-first search from the goal, then any start gets
+ * the length of its path in O(1) and the path itself in O(length) by following
+ * the next steps, without a search.
+ * <p> The search is level-synchronous: the queue holds the levels one after another
+ * and a level is expanded only when the previous one is done. The levels wider than
+ * <code>PARALLEL_LEVEL</code> cells are split between the workers of the pool, which claim
+ * the new cells by compare-and-set of their distances and append them to the queue
+ * in blocks. A cell gets its next step from the worker that has claimed it,
+ * so the steps always lead along a shortest path, though which of two equally short
+ * ones a cell of a wide level takes depends on the timing. The levels of a maze are mostly
+ * a few cells wide, and splitting them would cost more than it saves, so they
+ * are expanded on the calling thread.
+ * <p> Takes 5 bytes per cell plus 4 bytes per cell of the queue during the search.
+ * The field is computed for the current walls: it must be recomputed when they change.
+ * The queries may run on several threads at once, but not during a computation.
+ */
+public final class DistanceField {
+	public static final int PARALLEL_LEVEL = 1 << 11;
+
+	// The cells of a level a task expands without splitting it further
+	private static final int CHUNK = 1 << 9;
+
+	// The next step of the goal and the unreachable cells, the others are directions of Grid
+	private static final byte NONE = -1;
+
+	private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle( int[].class );
+
+	private final Grid grid;
+	private final ForkJoinPool pool;
+	private final int[] distance;
+	private final byte[] next;
+	private int goal;
+
+
+	/**
+	 * Computes the field.
+	 *
+	 * @param grid the labyrinth
+	 * @param goal the cell all the paths lead to
+	 * @param pool expands the wide levels of the search
+	 */
+	public DistanceField( Grid grid, int goal, ForkJoinPool pool ) {
+		this.grid = grid;
+		this.pool = pool;
+		distance = new int[ grid.size() ];
+		next = new byte[ grid.size() ];
+		this.goal = goal;
+		recompute();
+	}
+
+
+	/**
+	 * @return the cell all the paths lead to
+	 */
+	public int goal() {
+		return goal;
+	}
+
+
+	/**
+	 * Moves the goal, recomputing the field if it has changed.
+	 */
+	public void setGoal( int goal ) {
+		if( goal == this.goal ) return;
+		this.goal = goal;
+		recompute();
+	}
+
+
+	/**
+	 * Computes the field for the current walls.
+	 */
+	public void recompute() {
+		Arrays.fill( distance, -1 );
+		Arrays.fill( next, NONE );
+		int[] queue = new int[ grid.size() ];
+		AtomicInteger tail = new AtomicInteger( 1 );
+		queue[ 0 ] = goal;
+		distance[ goal ] = 0;
+
+		int levelStart = 0;
+		int levelEnd = 1;
+		for( int level = 1; levelStart < levelEnd; level++ ) {
+			if( levelEnd - levelStart > PARALLEL_LEVEL && pool.getParallelism() > 1 ) {
+				pool.invoke( new Expansion( queue, tail, level, levelStart, levelEnd ) );
+			} else {
+				int end = levelEnd;
+				for( int i = levelStart; i < levelEnd; i++ ) {
+					int cell = queue[ i ];
+					if( !grid.hasTopWall( cell ) ) end = claim( cell - grid.cols, Grid.DOWN, level, queue, end );
+					if( !grid.hasLeftWall( cell ) ) end = claim( cell - 1, Grid.RIGHT, level, queue, end );
+					if( !grid.hasRightWall( cell ) ) end = claim( cell + 1, Grid.LEFT, level, queue, end );
+					if( !grid.hasBottomWall( cell ) ) end = claim( cell + grid.cols, Grid.UP, level, queue, end );
+				}
+				tail.set( end );
+			}
+			levelStart = levelEnd;
+			levelEnd = tail.get();
+		}
+	}
+
+
+	/**
+	 * @return the length of the shortest path from the cell to the goal, -1 if there is no path
+	 */
+	public int distance( int cell ) {
+		return distance[ cell ];
+	}
+
+
+	/**
+	 * @return the neighbor of the cell one step closer to the goal,
+	 * -1 for the goal and the unreachable cells
+	 */
+	public int nextHop( int cell ) {
+		return ( next[ cell ] == NONE ) ? -1 : grid.neighbor( cell, next[ cell ] );
+	}
+
+
+	/**
+	 * @param start the start cell
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 */
+	public int[] path( int start ) {
+		if( distance[ start ] < 0 ) return null;
+		int[] path = new int[ distance[ start ] + 1 ];
+		int cell = start;
+		for( int i = 0; i < path.length; i++ ) {
+			path[ i ] = cell;
+			cell = nextHop( cell );
+		}
+		return path;
+	}
+
+
+	/**
+	 * @return the size of the distances and the next steps in bytes
+	 */
+	public long bytes() {
+		return 5L * distance.length;
+	}
+
+
+	/**
+	 * Claims the cell for the current level on the calling thread.
+	 *
+	 * @param step the next step from the cell back to the cell it has been reached from
+	 * @return the new end of the queue
+	 */
+	private int claim( int cell, byte step, int level, int[] queue, int end ) {
+		if( distance[ cell ] != -1 ) return end;
+		distance[ cell ] = level;
+		next[ cell ] = step;
+		queue[ end ] = cell;
+		return end + 1;
+	}
+
+
+	/**
+	 * Expands a part of a level, splitting it in halves between the workers.
+	 * The cells of the next level are collected by a task and appended to the queue at once.
+	 */
+	@SuppressWarnings( "serial" )
+	private final class Expansion extends RecursiveAction {
+		private final int[] queue;
+		private final AtomicInteger tail;
+		private final int level;
+		private final int from;
+		private final int to;
+
+
+		Expansion( int[] queue, AtomicInteger tail, int level, int from, int to ) {
+			this.queue = queue;
+			this.tail = tail;
+			this.level = level;
+			this.from = from;
+			this.to = to;
+		}
+
+
+		@Override
+		protected void compute() {
+			if( to - from > CHUNK ) {
+				int middle = ( from + to ) >>> 1;
+				invokeAll( new Expansion( queue, tail, level, from, middle ),
+						new Expansion( queue, tail, level, middle, to ) );
+				return;
+			}
+
+			IntList found = new IntList( 2 * ( to - from ) );
+			for( int i = from; i < to; i++ ) {
+				int cell = queue[ i ];
+				if( !grid.hasTopWall( cell ) ) claim( cell - grid.cols, Grid.DOWN, found );
+				if( !grid.hasLeftWall( cell ) ) claim( cell - 1, Grid.RIGHT, found );
+				if( !grid.hasRightWall( cell ) ) claim( cell + 1, Grid.LEFT, found );
+				if( !grid.hasBottomWall( cell ) ) claim( cell + grid.cols, Grid.UP, found );
+			}
+			int end = tail.getAndAdd( found.size() );
+			for( int i = 0; i < found.size(); i++ ) {
+				queue[ end + i ] = found.get( i );
+			}
+		}
+
+
+		/**
+		 * Claims the cell for the level unless another worker has already claimed it.
+		 */
+		private void claim( int cell, byte step, IntList found ) {
+			if( distance[ cell ] != -1 || !DISTANCE.compareAndSet( distance, cell, -1, level ) ) return;
+			next[ cell ] = step;
+			found.add( cell );
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package maze.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+/**
+ * Eller's algorithm: creates a perfect maze row by row.
+ * <p> For more information see
+ * <a href="http://www.neocomputer.org/projects/eller.html">Eller's Algorithm</a>
+ * <p> Only the current row is kept: the sets of its cells and its walls,
+ * so the memory depends only on the width of the maze and the height
+ * is unlimited. Each row is passed to a sink as soon as it is ready.
+ * <p> The sets are kept as a union-find forest over the columns.
+ * In each row:
+ * <ul>
+ * <li>adjacent cells of different sets are joined at random;</li>
+ * <li>each set goes down at random, but at least once;</li>
+ * <li>the cells below the ones gone down stay in their sets,
+ * the others start new sets.</li>
+ * </ul>
+ * The last row joins all the sets left, so the maze is connected.
+ */
+public final class EllerMazeMaker {
+	public final int cols;
+	private final SplittableRandom rand;
+	private final long[] walls;
+
+	// Random bits taken from the generator 32 at a time
+	private int bits = 0;
+	private int bitsLeft = 0;
+
+	// Per-column data of the current row
+	private final int[] parent;
+	private final int[] roots;
+	private final int[] counts;
+	private final int[] picks;
+	private final int[] firstDown;
+
+
+	/**
+	 * Receives the rows of the maze one by one.
+	 */
+	public interface RowSink {
+
+		/**
+		 * @param row   the number of the row, starting from 0
+		 * @param walls the right and the bottom walls of the row packed as in <code>Grid</code>:
+		 *              bit <code>2 * col</code> is the right wall, the next one is the bottom wall;
+		 *              the array is reused for the next row
+		 * @throws IOException
+		 */
+		void acceptRow( long row, long[] walls ) throws IOException;
+	}
+
+
+	/**
+	 * @param cols the total number of columns
+	 * @param rand the source of randomness
+	 */
+	public EllerMazeMaker( int cols, SplittableRandom rand ) {
+		this.cols = cols;
+		this.rand = rand;
+		walls = new long[ ( int ) ( ( 2L * cols + 63 ) >>> 6 ) ];
+		parent = new int[ cols ];
+		roots = new int[ cols ];
+		counts = new int[ cols ];
+		picks = new int[ cols ];
+		firstDown = new int[ cols ];
+		for( int col = 0; col < cols; col++ ) {
+			parent[ col ] = col;
+		}
+	}
+
+
+	/**
+	 * Generates the maze and passes its rows to the sink.
+	 *
+	 * @param rows the total number of rows
+	 * @param cols the total number of columns
+	 * @param rand the source of randomness
+	 * @param sink receives the rows
+	 * @throws IOException if the sink fails
+	 */
+	public static void generate( long rows, int cols, SplittableRandom rand, RowSink sink ) throws IOException {
+		EllerMazeMaker maker = new EllerMazeMaker( cols, rand );
+		for( long row = 0; row < rows; row++ ) {
+			sink.acceptRow( row, maker.nextRow( row == rows - 1 ) );
+		}
+	}
+
+
+	/**
+	 * @return the sink copying the rows into the grid, which must have all the walls
+	 */
+	public static RowSink into( Grid grid ) {
+		return ( row, walls ) -> {
+			for( int col = 0; col < grid.cols; col++ ) {
+				int cell = grid.index( ( int ) row, col );
+				if( ( walls[ col >>> 5 ] & ( 1L << 2 * col ) ) == 0 ) grid.removeRightWall( cell );
+				if( ( walls[ col >>> 5 ] & ( 1L << 2 * col + 1 ) ) == 0 ) grid.removeBottomWall( cell );
+			}
+		};
+	}
+
+
+	/**
+	 * Carves the next row.
+	 *
+	 * @param last true for the last row of the maze
+	 * @return the walls of the row, see <code>RowSink</code>; the array is reused for the next row
+	 */
+	public long[] nextRow( boolean last ) {
+		Arrays.fill( walls, -1L );
+		if( ( 2 * cols & 63 ) != 0 ) {
+			walls[ walls.length - 1 ] = ( 1L << ( 2 * cols & 63 ) ) - 1;
+		}
+
+		// Join adjacent cells of different sets, all of them in the last row
+		for( int col = 0; col < cols - 1; col++ ) {
+			int a = find( col );
+			int b = find( col + 1 );
+			if( a != b && ( last || nextBit() ) ) {
+				walls[ col >>> 5 ] &= ~( 1L << 2 * col );
+				parent[ b ] = a;
+			}
+		}
+		if( last ) return walls;
+
+		// Go down at random
+		for( int col = 0; col < cols; col++ ) {
+			roots[ col ] = find( col );
+			counts[ col ] = 0;
+			firstDown[ col ] = -1;
+		}
+		for( int col = 0; col < cols; col++ ) {
+			int root = roots[ col ];
+			counts[ root ]++;
+			if( nextBit() ) {
+				walls[ col >>> 5 ] &= ~( 1L << 2 * col + 1 );
+				if( firstDown[ root ] == -1 ) firstDown[ root ] = col;
+			}
+		}
+
+		// A random cell goes down from each set which hasn't
+		for( int col = 0; col < cols; col++ ) {
+			if( roots[ col ] == col && firstDown[ col ] == -1 ) {
+				picks[ col ] = rand.nextInt( counts[ col ] );
+			}
+		}
+		for( int col = 0; col < cols; col++ ) {
+			int root = roots[ col ];
+			if( firstDown[ root ] == -1 && picks[ root ]-- == 0 ) {
+				walls[ col >>> 5 ] &= ~( 1L << 2 * col + 1 );
+				firstDown[ root ] = col;
+			}
+		}
+
+		// The sets of the next row
+		for( int col = 0; col < cols; col++ ) {
+			boolean down = ( walls[ col >>> 5 ] & ( 1L << 2 * col + 1 ) ) == 0;
+			parent[ col ] = down ? firstDown[ roots[ col ] ] : col;
+		}
+		return walls;
+	}
+
+
+	private boolean nextBit() {
+		if( bitsLeft == 0 ) {
+			bits = rand.nextInt();
+			bitsLeft = 32;
+		}
+		bitsLeft--;
+		boolean bit = ( bits & 1 ) != 0;
+		bits >>>= 1;
+		return bit;
+	}
+
+
+	private int find( int col ) {
+		int root = col;
+		while( parent[ root ] != root ) root = parent[ root ];
+		while( parent[ col ] != root ) {
+			int next = parent[ col ];
+			parent[ col ] = root;
+			col = next;
+		}
+		return root;
+	}
+}
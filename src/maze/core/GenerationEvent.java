@@ -0,0 +1,40 @@
+package maze.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+
+/**
+ * The Flight Recorder event of a single maze generation, see <code>Metrics</code>.
+ */
+@Name( "maze.Generation" )
+@Label( "Maze Generation" )
+@Category( "Maze" )
+@Description( "Carving a maze and making the extra gates" )
+final class GenerationEvent extends jdk.jfr.Event {
+	@Label( "Mode" )
+	String mode;
+
+	@Label( "Rows" )
+	int rows;
+
+	@Label( "Columns" )
+	int cols;
+
+	@Label( "Seed" )
+	long seed;
+
+	@Label( "Carving" )
+	@Timespan( Timespan.NANOSECONDS )
+	long carveNanos;
+
+	@Label( "Gates" )
+	@Timespan( Timespan.NANOSECONDS )
+	long gatesNanos;
+
+	@Label( "Gates Added" )
+	int gatesAdded;
+}
@@ -0,0 +1,61 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * The available maze generation algorithms.
+ */
+public enum GenerationMode {
+	BACKTRACKER( "Backtracker", true, new MazeGenerator() {
+		@Override
+		public void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+			RandomMazeMaker.carvePassage( grid, rand.nextInt( grid.size() ), rand, listener );
+		}
+
+
+		@Override
+		public void carve( Grid grid, SplittableRandom rand, ForkJoinPool pool ) {
+			ParallelMazeMaker.carvePassages( grid, ParallelMazeMaker.DEFAULT_TILE_SIZE, rand, pool );
+		}
+	} ),
+	KRUSKAL( "Kruskal", false, new KruskalMazeMaker() ),
+	WILSON( "Wilson", false, new WilsonMazeMaker() ),
+	PRIM( "Prim", false, new PrimMazeMaker() ),
+	SIDEWINDER( "Sidewinder", true, new RowMazeMaker( true ) ),
+	BINARY_TREE( "Binary tree", true, new RowMazeMaker( false ) );
+
+	private final String title;
+	private final boolean parallel;
+	private final MazeGenerator generator;
+
+
+	GenerationMode( String title, boolean parallel, MazeGenerator generator ) {
+		this.title = title;
+		this.parallel = parallel;
+		this.generator = generator;
+	}
+
+
+	/**
+	 * @return true if the generator can carve on several threads
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+
+	/**
+	 * @return the generator, it keeps no state between the calls
+	 */
+	public MazeGenerator generator() {
+		return generator;
+	}
+
+
+	@Override
+	public String toString() {
+		return title;
+	}
+}
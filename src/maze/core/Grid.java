@@ -0,0 +1,302 @@
+package maze.core;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+
+/**
+ * The packed maze model.
+ * <p> Keeps only two wall bits per cell (the right and the bottom one)
+ * in a <code>long</code> bitset. The top and the left walls of a cell are
+ * the bottom and the right walls of its neighbors, the outer border is always closed.
+ * <p> Cells are addressed by index: <code>row * cols + col</code>.
+ * <p> The bitset is kept either in an array or in a buffer, e.g. a mapped
+ * maze file. A grid backed by a read-only buffer can't be changed.
+ */
+public final class Grid {
+	// The directions from a cell to its neighbors
+	public static final byte UP = 0;
+	public static final byte LEFT = 1;
+	public static final byte RIGHT = 2;
+	public static final byte DOWN = 3;
+
+	public final int rows;
+	public final int cols;
+	private final long[] walls;
+	private final LongBuffer buffer;
+
+
+	/**
+	 * Creates a new grid with all the walls.
+	 *
+	 * @param rows the total number of rows
+	 * @param cols the total number of columns
+	 */
+	public Grid( int rows, int cols ) {
+		this.rows = rows;
+		this.cols = cols;
+		walls = new long[ words( rows, cols ) ];
+		buffer = null;
+		reset();
+	}
+
+
+	/**
+	 * Creates a grid backed by the buffer.
+	 *
+	 * @param rows   the total number of rows
+	 * @param cols   the total number of columns
+	 * @param buffer the packed walls, <code>words( rows, cols )</code> longs from its index 0
+	 */
+	Grid( int rows, int cols, LongBuffer buffer ) {
+		this.rows = rows;
+		this.cols = cols;
+		walls = null;
+		this.buffer = buffer;
+	}
+
+
+	/**
+	 * Creates a copy of the grid.
+	 *
+	 * @param other the grid to be copied
+	 */
+	public Grid( Grid other ) {
+		rows = other.rows;
+		cols = other.cols;
+		walls = new long[ other.wallWords() ];
+		buffer = null;
+		for( int i = 0; i < walls.length; i++ ) {
+			walls[ i ] = other.getWallWord( i );
+		}
+	}
+
+
+	/**
+	 * @return the number of 64-bit words the walls of the grid of this size are packed into
+	 */
+	public static int words( int rows, int cols ) {
+		return ( int ) ( ( 2L * rows * cols + 63 ) >>> 6 );
+	}
+
+
+	/**
+	 * @return the total number of cells
+	 */
+	public int size() {
+		return rows * cols;
+	}
+
+
+	/**
+	 * @return the index of the cell specified by the row and the column
+	 */
+	public int index( int row, int col ) {
+		return row * cols + col;
+	}
+
+
+	public int row( int cell ) {
+		return cell / cols;
+	}
+
+
+	public int col( int cell ) {
+		return cell % cols;
+	}
+
+
+	/**
+	 * @param direction <code>UP</code>, <code>LEFT</code>, <code>RIGHT</code> or <code>DOWN</code>
+	 * @return the adjacent cell in the direction, neither the walls nor the border are checked
+	 */
+	public int neighbor( int cell, int direction ) {
+		switch( direction ) {
+			case UP:
+				return cell - cols;
+			case LEFT:
+				return cell - 1;
+			case RIGHT:
+				return cell + 1;
+			default:
+				return cell + cols;
+		}
+	}
+
+
+	/**
+	 * @param direction <code>UP</code>, <code>LEFT</code>, <code>RIGHT</code> or <code>DOWN</code>
+	 * @return the adjacent cell in the direction, -1 if there is a wall between them
+	 */
+	public int openNeighbor( int cell, int direction ) {
+		switch( direction ) {
+			case UP:
+				return hasTopWall( cell ) ? -1 : cell - cols;
+			case LEFT:
+				return hasLeftWall( cell ) ? -1 : cell - 1;
+			case RIGHT:
+				return hasRightWall( cell ) ? -1 : cell + 1;
+			default:
+				return hasBottomWall( cell ) ? -1 : cell + cols;
+		}
+	}
+
+
+	/**
+	 * @return the length of the shortest path between the cells as if there were no walls
+	 */
+	public int manhattan( int a, int b ) {
+		return Math.abs( row( a ) - row( b ) ) + Math.abs( col( a ) - col( b ) );
+	}
+
+
+	/**
+	 * Closes all the walls.
+	 */
+	public void reset() {
+		fill( -1L );
+	}
+
+
+	/**
+	 * Removes all the walls except for the outer border.
+	 */
+	public void clearWalls() {
+		fill( 0L );
+		for( int row = 0; row < rows; row++ ) {
+			addRightWall( index( row, cols - 1 ) );
+		}
+		for( int col = 0; col < cols; col++ ) {
+			addBottomWall( index( rows - 1, col ) );
+		}
+	}
+
+
+	/**
+	 * @return the number of 64-bit words the walls are packed into
+	 */
+	public int wallWords() {
+		return ( walls != null ) ? walls.length : words( rows, cols );
+	}
+
+
+	/**
+	 * @return 64 packed wall bits: the right and the bottom wall of 32 cells,
+	 * starting from the cell <code>32 * i</code>, the lowest bits go first
+	 */
+	public long getWallWord( int i ) {
+		return ( walls != null ) ? walls[ i ] : buffer.get( i );
+	}
+
+
+	/**
+	 * Splits the wall words into the bitboards of the right and the bottom walls:
+	 * bit <code>cell % 64</code> of word <code>cell / 64</code>. The bits past the last cell are set.
+	 *
+	 * @param right  receives the right walls, <code>( size() + 63 ) / 64</code> words
+	 * @param bottom receives the bottom walls
+	 */
+	void readWalls( long[] right, long[] bottom ) {
+		int words = wallWords();
+		for( int i = 0; i < right.length; i++ ) {
+			long low = getWallWord( 2 * i );
+			long high = ( 2 * i + 1 < words ) ? getWallWord( 2 * i + 1 ) : -1L;
+			right[ i ] = compress( low ) | compress( high ) << 32;
+			bottom[ i ] = compress( low >>> 1 ) | compress( high >>> 1 ) << 32;
+		}
+		int tail = size() & 63;
+		if( tail != 0 ) {
+			right[ right.length - 1 ] |= -1L << tail;
+			bottom[ bottom.length - 1 ] |= -1L << tail;
+		}
+	}
+
+
+	/**
+	 * @return the even bits of the word packed into the lower 32 bits
+	 */
+	private static long compress( long word ) {
+		word &= 0x5555555555555555L;
+		word = ( word | word >>> 1 ) & 0x3333333333333333L;
+		word = ( word | word >>> 2 ) & 0x0F0F0F0F0F0F0F0FL;
+		word = ( word | word >>> 4 ) & 0x00FF00FF00FF00FFL;
+		word = ( word | word >>> 8 ) & 0x0000FFFF0000FFFFL;
+		return ( word | word >>> 16 ) & 0x00000000FFFFFFFFL;
+	}
+
+
+	public void setWallWord( int i, long word ) {
+		if( walls != null ) {
+			walls[ i ] = word;
+		} else {
+			buffer.put( i, word );
+		}
+	}
+
+
+	public boolean hasRightWall( int cell ) {
+		long bit = 2L * cell;
+		return ( getWallWord( ( int ) ( bit >>> 6 ) ) & ( 1L << bit ) ) != 0;
+	}
+
+
+	public boolean hasBottomWall( int cell ) {
+		long bit = 2L * cell + 1;
+		return ( getWallWord( ( int ) ( bit >>> 6 ) ) & ( 1L << bit ) ) != 0;
+	}
+
+
+	public boolean hasTopWall( int cell ) {
+		return cell < cols || hasBottomWall( cell - cols );
+	}
+
+
+	public boolean hasLeftWall( int cell ) {
+		return cell % cols == 0 || hasRightWall( cell - 1 );
+	}
+
+
+	public void addRightWall( int cell ) {
+		long bit = 2L * cell;
+		setWallWord( ( int ) ( bit >>> 6 ), getWallWord( ( int ) ( bit >>> 6 ) ) | ( 1L << bit ) );
+	}
+
+
+	public void addBottomWall( int cell ) {
+		long bit = 2L * cell + 1;
+		setWallWord( ( int ) ( bit >>> 6 ), getWallWord( ( int ) ( bit >>> 6 ) ) | ( 1L << bit ) );
+	}
+
+
+	public void removeRightWall( int cell ) {
+		long bit = 2L * cell;
+		setWallWord( ( int ) ( bit >>> 6 ), getWallWord( ( int ) ( bit >>> 6 ) ) & ~( 1L << bit ) );
+	}
+
+
+	public void removeBottomWall( int cell ) {
+		long bit = 2L * cell + 1;
+		setWallWord( ( int ) ( bit >>> 6 ), getWallWord( ( int ) ( bit >>> 6 ) ) & ~( 1L << bit ) );
+	}
+
+
+	private void fill( long word ) {
+		if( walls != null ) {
+			Arrays.fill( walls, word );
+		} else {
+			for( int i = 0; i < wallWords(); i++ ) {
+				buffer.put( i, word );
+			}
+		}
+	}
+
+
+	/**
+	 * Checks if the cell hasn't been carved yet.
+	 *
+	 * @return true if all the four walls of the cell are present
+	 */
+	public boolean isClosed( int cell ) {
+		return hasRightWall( cell ) && hasBottomWall( cell ) && hasTopWall( cell ) && hasLeftWall( cell );
+	}
+}
@@ -0,0 +1,232 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The incremental shortest path between two fixed cells of a changing grid (LPA*).
+ * <p> For more information see
+ * <a href="http://idm-lab.org/bib/abstracts/papers/aij04.pdf">Lifelong Planning A*</a>
+ * <p> Keeps two estimates of the distance from the start for every cell: <code>g</code>,
+ * the one of the last search, and <code>rhs</code>, the one its neighbours give now.
+ * The cells where they differ are inconsistent and wait in the open set ordered like A*.
+ * A wall change makes only its two cells inconsistent, so the search after it repairs
+ * the part of the distances the change affects, up to the goal, instead of starting over.
+ * <p> The first search expands about as many cells as A* with the Manhattan heuristic.
+ * Opening a wall is usually cheap. Closing a wall of a perfect maze on the path cuts
+ * the whole branch behind it off the start, so all of its cells are expanded again.
+ * <p> The walls must be changed through the planner. An instance mustn't be used
+ * by several threads at once.
+ */
+public final class IncrementalPlanner {
+	private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+	private final Grid grid;
+	private final int start;
+	private final int goal;
+	private final int[] g;
+	private final int[] rhs;
+	private final IndexedHeap openSet;
+
+	// True if a search has been stopped halfway, so the estimates are to be computed again
+	private boolean stopped = false;
+
+
+	/**
+	 * Creates a planner that has searched nothing yet.
+	 *
+	 * @param grid  the labyrinth to be solved
+	 * @param start the start cell
+	 * @param goal  the goal cell
+	 */
+	public IncrementalPlanner( Grid grid, int start, int goal ) {
+		this.grid = grid;
+		this.start = start;
+		this.goal = goal;
+		g = new int[ grid.size() ];
+		rhs = new int[ grid.size() ];
+		openSet = new IndexedHeap( grid.size() );
+		initialize();
+	}
+
+
+	/**
+	 * Finds the shortest path in the current grid repairing the previous search.
+	 *
+	 * @param listener receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	public int[] findPath( MazeListener listener ) throws InterruptedException {
+		if( stopped ) initialize();
+		openSet.resetCounters();
+		stopped = true;
+		computeShortestPath( listener );
+		stopped = false;
+		if( g[ goal ] >= INFINITY ) return null;
+		return reconstructPath( listener );
+	}
+
+
+	/**
+	 * Removes the wall between two adjacent cells and finds the new shortest path.
+	 *
+	 * @param cell      a cell
+	 * @param neighbour the cell on the other side of the wall
+	 * @param listener  receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	public int[] openWall( int cell, int neighbour, MazeListener listener ) throws InterruptedException {
+		setWall( cell, neighbour, false );
+		return findPath( listener );
+	}
+
+
+	/**
+	 * Adds the wall between two adjacent cells and finds the new shortest path.
+	 *
+	 * @param cell      a cell
+	 * @param neighbour the cell on the other side of the wall
+	 * @param listener  receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	public int[] closeWall( int cell, int neighbour, MazeListener listener ) throws InterruptedException {
+		setWall( cell, neighbour, true );
+		return findPath( listener );
+	}
+
+
+	/**
+	 * @return the counters of the last search
+	 */
+	public SearchStats stats() {
+		return SearchStats.of( openSet );
+	}
+
+
+	/**
+	 * Forgets all the searches, so the next one starts from scratch.
+	 */
+	private void initialize() {
+		openSet.clear();
+		Arrays.fill( g, INFINITY );
+		Arrays.fill( rhs, INFINITY );
+		rhs[ start ] = 0;
+		openSet.add( start, heuristic( start ), 0 );
+	}
+
+
+	private void setWall( int cell, int neighbour, boolean wall ) {
+		int first = Math.min( cell, neighbour );
+		int second = Math.max( cell, neighbour );
+		if( second == first + 1 && grid.row( first ) == grid.row( second ) ) {
+			if( wall ) grid.addRightWall( first );
+			else grid.removeRightWall( first );
+		} else if( second == first + grid.cols && second < grid.size() ) {
+			if( wall ) grid.addBottomWall( first );
+			else grid.removeBottomWall( first );
+		} else {
+			throw new IllegalArgumentException( "The cells aren't adjacent: " + cell + ", " + neighbour );
+		}
+		updateCell( first );
+		updateCell( second );
+	}
+
+
+	/**
+	 * Expands the inconsistent cells in the order of their keys until the goal
+	 * is consistent and no other cell can shorten its path.
+	 */
+	private void computeShortestPath( MazeListener listener ) throws InterruptedException {
+		while( !openSet.isEmpty() && ( less( openSet.peek(), goal ) || rhs[ goal ] != g[ goal ] ) ) {
+			int cell = openSet.poll();
+			if( g[ cell ] > rhs[ cell ] ) {
+				// Overconsistent: the cell has got a shorter path, pass it to the neighbours
+				g[ cell ] = rhs[ cell ];
+			} else {
+				// Underconsistent: the path of the cell has been cut, recompute it and the neighbours
+				g[ cell ] = INFINITY;
+				updateCell( cell );
+			}
+			if( !grid.hasTopWall( cell ) ) updateCell( cell - grid.cols );
+			if( !grid.hasLeftWall( cell ) ) updateCell( cell - 1 );
+			if( !grid.hasRightWall( cell ) ) updateCell( cell + 1 );
+			if( !grid.hasBottomWall( cell ) ) updateCell( cell + grid.cols );
+
+			listener.onEvent( MazeEvent.CLOSE, cell );
+		}
+	}
+
+
+	/**
+	 * Recomputes the <code>rhs</code> of the cell and puts it to the open set if it is inconsistent.
+	 * <p> The grid border is closed, so the neighbours are always inside the maze bounds.
+	 */
+	private void updateCell( int cell ) {
+		if( cell != start ) {
+			int best = INFINITY;
+			if( !grid.hasTopWall( cell ) ) best = Math.min( best, g[ cell - grid.cols ] + 1 );
+			if( !grid.hasLeftWall( cell ) ) best = Math.min( best, g[ cell - 1 ] + 1 );
+			if( !grid.hasRightWall( cell ) ) best = Math.min( best, g[ cell + 1 ] + 1 );
+			if( !grid.hasBottomWall( cell ) ) best = Math.min( best, g[ cell + grid.cols ] + 1 );
+			rhs[ cell ] = Math.min( best, INFINITY );
+		}
+		if( openSet.contains( cell ) ) openSet.remove( cell );
+		if( g[ cell ] != rhs[ cell ] ) {
+			// Ordered by min( g, rhs ) + h(), ties are broken on min( g, rhs )
+			int distance = Math.min( g[ cell ], rhs[ cell ] );
+			openSet.add( cell, distance + heuristic( cell ), distance );
+		}
+	}
+
+
+	/**
+	 * @return true if the key of the first cell is less than the current key of the second one
+	 */
+	private boolean less( int first, int second ) {
+		int distance = Math.min( g[ second ], rhs[ second ] );
+		int key = distance + heuristic( second );
+		return openSet.key( first ) < key ||
+				openSet.key( first ) == key && Math.min( g[ first ], rhs[ first ] ) < distance;
+	}
+
+
+	/**
+	 * @return the Manhattan distance to the goal
+	 */
+	private int heuristic( int cell ) {
+		return grid.manhattan( goal, cell );
+	}
+
+
+	/**
+	 * Walks from the goal to the neighbours closest to the start.
+	 */
+	private int[] reconstructPath( MazeListener listener ) throws InterruptedException {
+		int[] path = new int[ g[ goal ] + 1 ];
+		int cell = goal;
+		for( int i = path.length - 1; ; i-- ) {
+			path[ i ] = cell;
+			listener.onEvent( MazeEvent.PATH, cell );
+			if( i == 0 ) break;
+
+			int next = -1;
+			if( !grid.hasTopWall( cell ) ) next = closer( next, cell - grid.cols );
+			if( !grid.hasLeftWall( cell ) ) next = closer( next, cell - 1 );
+			if( !grid.hasRightWall( cell ) ) next = closer( next, cell + 1 );
+			if( !grid.hasBottomWall( cell ) ) next = closer( next, cell + grid.cols );
+			cell = next;
+		}
+		return path;
+	}
+
+
+	private int closer( int best, int cell ) {
+		return ( best == -1 || g[ cell ] < g[ best ] ) ? cell : best;
+	}
+}
@@ -0,0 +1,228 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The indexed binary min-heap.
+ * <p> Keeps items which are integers between 0 (inclusive) and the capacity (exclusive),
+ * e.g. cell indexes, ordered by an integer key. Ties are broken by the second key.
+ * <p> Tracks the position of every item inside the heap, so membership check is O(1)
+ * and decrease-key is O(log n) rather than a linear removal.
+ * <p> Counts the operations made since the last <code>resetCounters()</code>.
+ */
+public final class IndexedHeap {
+	private final int[] heap;
+	private final int[] positions; // -1 if the item isn't in the heap
+	private final int[] keys;
+	private final int[] ties;
+	private int size = 0;
+
+	// Counters
+	private int pushes = 0;
+	private int pops = 0;
+	private int decreases = 0;
+	private int maxSize = 0;
+
+
+	/**
+	 * Creates a new empty heap.
+	 *
+	 * @param capacity the number of possible items
+	 */
+	public IndexedHeap( int capacity ) {
+		heap = new int[ capacity ];
+		positions = new int[ capacity ];
+		keys = new int[ capacity ];
+		ties = new int[ capacity ];
+		Arrays.fill( positions, -1 );
+	}
+
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	public int size() {
+		return size;
+	}
+
+
+	public boolean contains( int item ) {
+		return positions[ item ] != -1;
+	}
+
+
+	/**
+	 * @return the key of the item which is (or was) in the heap
+	 */
+	public int key( int item ) {
+		return keys[ item ];
+	}
+
+
+	/**
+	 * Adds a new item to the heap.
+	 *
+	 * @param item the item which isn't in the heap
+	 * @param key  the main key
+	 * @param tie  the key used when the main keys are equal
+	 */
+	public void add( int item, int key, int tie ) {
+		keys[ item ] = key;
+		ties[ item ] = tie;
+		heap[ size ] = item;
+		positions[ item ] = size;
+		siftUp( size++ );
+		pushes++;
+		if( size > maxSize ) maxSize = size;
+	}
+
+
+	/**
+	 * Makes the key of the item smaller keeping its tie key.
+	 *
+	 * @param item the item which is in the heap
+	 * @param key  the new key, not greater than the current one
+	 */
+	public void decreaseKey( int item, int key ) {
+		keys[ item ] = key;
+		siftUp( positions[ item ] );
+		decreases++;
+	}
+
+
+	/**
+	 * @return the item with the smallest key, which is not removed
+	 */
+	public int peek() {
+		return heap[ 0 ];
+	}
+
+
+	/**
+	 * Removes the item with the smallest key.
+	 *
+	 * @return the removed item
+	 */
+	public int poll() {
+		int item = heap[ 0 ];
+		positions[ item ] = -1;
+		pops++;
+		if( --size > 0 ) {
+			heap[ 0 ] = heap[ size ];
+			positions[ heap[ 0 ] ] = 0;
+			siftDown( 0 );
+		}
+		return item;
+	}
+
+
+	/**
+	 * Removes the item wherever it is in the heap. Isn't counted as a removal
+	 * of the smallest item.
+	 *
+	 * @param item the item which is in the heap
+	 */
+	public void remove( int item ) {
+		int pos = positions[ item ];
+		positions[ item ] = -1;
+		if( pos == --size ) return;
+		int last = heap[ size ];
+		heap[ pos ] = last;
+		positions[ last ] = pos;
+		siftDown( pos );
+		if( positions[ last ] == pos ) siftUp( pos );
+	}
+
+
+	/**
+	 * Removes all the items. Costs O(size) rather than O(capacity).
+	 */
+	public void clear() {
+		for( int i = 0; i < size; i++ ) {
+			positions[ heap[ i ] ] = -1;
+		}
+		size = 0;
+	}
+
+
+	/**
+	 * @return the number of the added items
+	 */
+	public int pushes() {
+		return pushes;
+	}
+
+
+	/**
+	 * @return the number of the removed items
+	 */
+	public int pops() {
+		return pops;
+	}
+
+
+	/**
+	 * @return the number of the decreased keys
+	 */
+	public int decreases() {
+		return decreases;
+	}
+
+
+	/**
+	 * @return the largest size of the heap
+	 */
+	public int maxSize() {
+		return maxSize;
+	}
+
+
+	public void resetCounters() {
+		pushes = 0;
+		pops = 0;
+		decreases = 0;
+		maxSize = size;
+	}
+
+
+	private boolean less( int a, int b ) {
+		return keys[ a ] < keys[ b ] || keys[ a ] == keys[ b ] && ties[ a ] < ties[ b ];
+	}
+
+
+	private void siftUp( int pos ) {
+		int item = heap[ pos ];
+		while( pos > 0 ) {
+			int parentPos = ( pos - 1 ) >>> 1;
+			int parent = heap[ parentPos ];
+			if( !less( item, parent ) ) break;
+			heap[ pos ] = parent;
+			positions[ parent ] = pos;
+			pos = parentPos;
+		}
+		heap[ pos ] = item;
+		positions[ item ] = pos;
+	}
+
+
+	private void siftDown( int pos ) {
+		int item = heap[ pos ];
+		int half = size >>> 1;
+		while( pos < half ) {
+			int childPos = 2 * pos + 1;
+			int child = heap[ childPos ];
+			if( childPos + 1 < size && less( heap[ childPos + 1 ], child ) ) {
+				child = heap[ ++childPos ];
+			}
+			if( !less( child, item ) ) break;
+			heap[ pos ] = child;
+			positions[ child ] = pos;
+			pos = childPos;
+		}
+		heap[ pos ] = item;
+		positions[ item ] = pos;
+	}
+}
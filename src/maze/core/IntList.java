@@ -0,0 +1,48 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The growable array of primitive integers.
+ */
+final class IntList {
+	private int[] items;
+	private int size = 0;
+
+
+	IntList( int capacity ) {
+		items = new int[ Math.max( capacity, 4 ) ];
+	}
+
+
+	void add( int item ) {
+		if( size == items.length ) {
+			items = Arrays.copyOf( items, size + ( size >>> 1 ) );
+		}
+		items[ size++ ] = item;
+	}
+
+
+	int get( int i ) {
+		return items[ i ];
+	}
+
+
+	int size() {
+		return size;
+	}
+
+
+	void clear() {
+		size = 0;
+	}
+
+
+	/**
+	 * @return the items trimmed to the size
+	 */
+	int[] toArray() {
+		return Arrays.copyOf( items, size );
+	}
+}
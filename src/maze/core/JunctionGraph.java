@@ -0,0 +1,372 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The corridor-contracted graph of the maze.
+ * <p> The nodes are the junctions and the dead-ends: the cells with other than
+ * two open sides. The edges are the corridors joining them, weighted by their length
+ * in steps. Each corridor keeps the sequence of its inner cells to expand the paths back.
+ * A ring of corridor cells without any junction gets one of its cells as a node.
+ * <p> Every cell knows its node or its corridor: <code>node</code> or
+ * <code>-(corridor + 1)</code>. A start or a goal in the middle of a corridor
+ * is joined to both of its ends by virtual edges.
+ * <p> The queries are answered by A* on the graph with the Manhattan heuristic
+ * and report only the nodes as opened and closed. The graph is built once in
+ * the constructor in linear time, so it must be rebuilt when the walls change.
+ */
+public final class JunctionGraph implements PathFinder {
+	private static final int UNSET = Integer.MIN_VALUE;
+
+	private final Grid grid;
+	private final int[] where;
+	private final int[] nodeCell;
+
+	// Corridors
+	private final int[] from;
+	private final int[] to;
+	private final int[] length;
+	private final int[] firstInner;
+	private final int[] inner;
+
+	// Corridors of each node: adjacent[ adjacentStart[ node ] ... adjacentStart[ node + 1 ] - 1 ]
+	private final int[] adjacentStart;
+	private final int[] adjacent;
+
+	// Per-search data, two more nodes for the start and the goal inside corridors
+	private final SearchData data;
+	private final int[] g;
+	private final int[] parent;
+	private final IndexedHeap openSet;
+
+	// The part of the corridor the node has been reached along
+	private final int[] hopCorridor;
+	private final int[] hopFrom;
+	private final int[] hopTo;
+
+
+	/**
+	 * Contracts the corridors of the grid.
+	 *
+	 * @param grid the labyrinth to be solved
+	 */
+	public JunctionGraph( Grid grid ) {
+		this.grid = grid;
+		where = new int[ grid.size() ];
+		Arrays.fill( where, UNSET );
+
+		IntList nodes = new IntList( grid.size() / 8 );
+		for( int cell = 0; cell < grid.size(); cell++ ) {
+			if( degree( cell ) != 2 ) {
+				where[ cell ] = nodes.size();
+				nodes.add( cell );
+			}
+		}
+
+		IntList corridors = new IntList( 4 * nodes.size() );
+		IntList cells = new IntList( grid.size() - nodes.size() );
+		for( int node = 0; node < nodes.size(); node++ ) {
+			traceCorridors( node, nodes.get( node ), corridors, cells );
+		}
+		for( int cell = 0; cell < grid.size(); cell++ ) {
+			if( where[ cell ] == UNSET ) {
+				where[ cell ] = nodes.size();
+				nodes.add( cell );
+				traceCorridors( where[ cell ], cell, corridors, cells );
+			}
+		}
+
+		nodeCell = nodes.toArray();
+		inner = cells.toArray();
+		int count = corridors.size() / 4;
+		from = new int[ count ];
+		to = new int[ count ];
+		length = new int[ count ];
+		firstInner = new int[ count ];
+		for( int e = 0; e < count; e++ ) {
+			from[ e ] = corridors.get( 4 * e );
+			to[ e ] = corridors.get( 4 * e + 1 );
+			length[ e ] = corridors.get( 4 * e + 2 );
+			firstInner[ e ] = corridors.get( 4 * e + 3 );
+		}
+
+		// Loops don't shorten any path, so only the corridors joining two nodes are adjacent
+		adjacentStart = new int[ nodeCell.length + 1 ];
+		for( int e = 0; e < count; e++ ) {
+			if( from[ e ] == to[ e ] ) continue;
+			adjacentStart[ from[ e ] + 1 ]++;
+			adjacentStart[ to[ e ] + 1 ]++;
+		}
+		for( int node = 0; node < nodeCell.length; node++ ) {
+			adjacentStart[ node + 1 ] += adjacentStart[ node ];
+		}
+		adjacent = new int[ adjacentStart[ nodeCell.length ] ];
+		int[] next = Arrays.copyOf( adjacentStart, nodeCell.length );
+		for( int e = 0; e < count; e++ ) {
+			if( from[ e ] == to[ e ] ) continue;
+			adjacent[ next[ from[ e ] ]++ ] = e;
+			adjacent[ next[ to[ e ] ]++ ] = e;
+		}
+
+		data = new SearchData( nodeCell.length + 2 );
+		g = data.g;
+		parent = data.parent;
+		openSet = data.openSet;
+		hopCorridor = new int[ nodeCell.length + 2 ];
+		hopFrom = new int[ nodeCell.length + 2 ];
+		hopTo = new int[ nodeCell.length + 2 ];
+	}
+
+
+	/**
+	 * Creates a copy sharing the graph.
+	 */
+	private JunctionGraph( JunctionGraph other ) {
+		grid = other.grid;
+		where = other.where;
+		nodeCell = other.nodeCell;
+		from = other.from;
+		to = other.to;
+		length = other.length;
+		firstInner = other.firstInner;
+		inner = other.inner;
+		adjacentStart = other.adjacentStart;
+		adjacent = other.adjacent;
+
+		data = new SearchData( nodeCell.length + 2 );
+		g = data.g;
+		parent = data.parent;
+		openSet = data.openSet;
+		hopCorridor = new int[ nodeCell.length + 2 ];
+		hopFrom = new int[ nodeCell.length + 2 ];
+		hopTo = new int[ nodeCell.length + 2 ];
+	}
+
+
+	/**
+	 * @return the number of junctions and dead-ends
+	 */
+	public int nodes() {
+		return nodeCell.length;
+	}
+
+
+	/**
+	 * @return the number of corridors
+	 */
+	public int corridors() {
+		return from.length;
+	}
+
+
+	@Override
+	public int[] findPath( int start, int goal, MazeListener listener ) throws InterruptedException {
+		if( start == goal ) {
+			listener.onEvent( MazeEvent.PATH, start );
+			return new int[] { start };
+		}
+
+		int startNode = ( where[ start ] >= 0 ) ? where[ start ] : nodeCell.length;
+		int goalNode = ( where[ goal ] >= 0 ) ? where[ goal ] : nodeCell.length + 1;
+		data.reset();
+
+		// The corridor and the position of the start and the goal if they are inside one
+		int startCorridor = ( where[ start ] < 0 ) ? -where[ start ] - 1 : -1;
+		int startPosition = ( startCorridor != -1 ) ? position( startCorridor, start ) : 0;
+		int goalCorridor = ( where[ goal ] < 0 ) ? -where[ goal ] - 1 : -1;
+		int goalPosition = ( goalCorridor != -1 ) ? position( goalCorridor, goal ) : 0;
+
+		g[ startNode ] = 0;
+		parent[ startNode ] = -1;
+		openSet.add( startNode, grid.manhattan( start, goal ), grid.manhattan( start, goal ) );
+
+		while( !openSet.isEmpty() ) {
+			int node = openSet.poll();
+			data.close( node );
+			if( node == goalNode ) break;
+
+			if( node == nodeCell.length ) {
+				int e = startCorridor;
+				relax( node, from[ e ], e, startPosition, 0, goal, listener );
+				relax( node, to[ e ], e, startPosition, length[ e ], goal, listener );
+				if( e == goalCorridor ) {
+					relax( node, goalNode, e, startPosition, goalPosition, goal, listener );
+				}
+			} else {
+				for( int i = adjacentStart[ node ]; i < adjacentStart[ node + 1 ]; i++ ) {
+					int e = adjacent[ i ];
+					if( from[ e ] == node ) {
+						relax( node, to[ e ], e, 0, length[ e ], goal, listener );
+					} else {
+						relax( node, from[ e ], e, length[ e ], 0, goal, listener );
+					}
+				}
+				if( goalCorridor != -1 && from[ goalCorridor ] == node ) {
+					relax( node, goalNode, goalCorridor, 0, goalPosition, goal, listener );
+				}
+				if( goalCorridor != -1 && to[ goalCorridor ] == node ) {
+					relax( node, goalNode, goalCorridor, length[ goalCorridor ], goalPosition, goal, listener );
+				}
+			}
+
+			listener.onEvent( MazeEvent.CLOSE, cellOf( node, start, goal ) );
+		}
+
+		if( !data.isClosed( goalNode ) ) return null;
+
+		return reconstructPath( goalNode, goal, listener );
+	}
+
+
+	@Override
+	public SearchStats stats() {
+		return SearchStats.of( openSet );
+	}
+
+
+	@Override
+	public PathFinder copy() {
+		return new JunctionGraph( this );
+	}
+
+
+	/**
+	 * Tries to improve the path to the neighbor along the part of the corridor
+	 * between two positions.
+	 */
+	private void relax( int node, int neighbor, int corridor, int fromPosition, int toPosition, int goal,
+	                    MazeListener listener ) throws InterruptedException {
+		if( data.isClosed( neighbor ) ) return;
+
+		int newG = g[ node ] + Math.abs( toPosition - fromPosition );
+		if( openSet.contains( neighbor ) ) {
+			if( newG >= g[ neighbor ] ) return;
+			openSet.decreaseKey( neighbor, openSet.key( neighbor ) - ( g[ neighbor ] - newG ) );
+		} else {
+			int h = grid.manhattan( cellOf( neighbor, -1, goal ), goal );
+			openSet.add( neighbor, newG + h, h );
+			listener.onEvent( MazeEvent.OPEN, cellOf( neighbor, -1, goal ) );
+		}
+		g[ neighbor ] = newG;
+		parent[ neighbor ] = node;
+		hopCorridor[ neighbor ] = corridor;
+		hopFrom[ neighbor ] = fromPosition;
+		hopTo[ neighbor ] = toPosition;
+	}
+
+
+	/**
+	 * Expands the corridors between the nodes of the found path.
+	 *
+	 * @return cells of the path from the start to the goal
+	 */
+	private int[] reconstructPath( int goalNode, int goal, MazeListener listener ) throws InterruptedException {
+		int[] path = new int[ g[ goalNode ] + 1 ];
+		int i = g[ goalNode ];
+		path[ i ] = goal;
+		for( int node = goalNode; parent[ node ] != -1; node = parent[ node ] ) {
+			int step = ( hopFrom[ node ] < hopTo[ node ] ) ? -1 : 1;
+			for( int p = hopTo[ node ] + step; p != hopFrom[ node ] + step; p += step ) {
+				path[ --i ] = cellAt( hopCorridor[ node ], p );
+			}
+		}
+		for( i = path.length - 1; i >= 0; i-- ) {
+			listener.onEvent( MazeEvent.PATH, path[ i ] );
+		}
+		return path;
+	}
+
+
+	/**
+	 * Walks all the corridors leading from the node which haven't been walked yet.
+	 *
+	 * @param corridors receives the ends, the length and the first inner cell of each corridor
+	 * @param cells     receives the inner cells of each corridor
+	 */
+	private void traceCorridors( int node, int cell, IntList corridors, IntList cells ) {
+		for( int direction = 0; direction < 4; direction++ ) {
+			int neighbor = grid.openNeighbor( cell, direction );
+			if( neighbor == -1 ) continue;
+			if( where[ neighbor ] >= 0 ) {
+				// Adjacent nodes, the corridor is added once
+				if( node < where[ neighbor ] ) {
+					addCorridor( corridors, node, where[ neighbor ], 1, cells.size() );
+				}
+				continue;
+			}
+			if( where[ neighbor ] != UNSET ) continue;
+
+			int corridor = corridors.size() / 4;
+			int first = cells.size();
+			int previous = cell;
+			int current = neighbor;
+			while( where[ current ] < 0 ) {
+				where[ current ] = -corridor - 1;
+				cells.add( current );
+				int next = otherNeighbor( current, previous );
+				previous = current;
+				current = next;
+			}
+			addCorridor( corridors, node, where[ current ], cells.size() - first + 1, first );
+		}
+	}
+
+
+	private static void addCorridor( IntList corridors, int from, int to, int length, int first ) {
+		corridors.add( from );
+		corridors.add( to );
+		corridors.add( length );
+		corridors.add( first );
+	}
+
+
+	/**
+	 * @return the position of the inner cell in the corridor, 0 is its <code>from</code> end
+	 */
+	private int position( int corridor, int cell ) {
+		int i = firstInner[ corridor ];
+		while( inner[ i ] != cell ) i++;
+		return i - firstInner[ corridor ] + 1;
+	}
+
+
+	/**
+	 * @return the cell at the position of the corridor
+	 */
+	private int cellAt( int corridor, int position ) {
+		if( position == 0 ) return nodeCell[ from[ corridor ] ];
+		if( position == length[ corridor ] ) return nodeCell[ to[ corridor ] ];
+		return inner[ firstInner[ corridor ] + position - 1 ];
+	}
+
+
+	/**
+	 * @return the cell of the node, including the start and the goal ones
+	 */
+	private int cellOf( int node, int start, int goal ) {
+		if( node < nodeCell.length ) return nodeCell[ node ];
+		return ( node == nodeCell.length ) ? start : goal;
+	}
+
+
+	private int degree( int cell ) {
+		int degree = 0;
+		for( int direction = 0; direction < 4; direction++ ) {
+			if( grid.openNeighbor( cell, direction ) != -1 ) degree++;
+		}
+		return degree;
+	}
+
+
+	/**
+	 * @return the neighbor of the corridor cell other than the previous one
+	 */
+	private int otherNeighbor( int cell, int previous ) {
+		for( int direction = 0; direction < 4; direction++ ) {
+			int neighbor = grid.openNeighbor( cell, direction );
+			if( neighbor != -1 && neighbor != previous ) return neighbor;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,93 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Randomized Kruskal's algorithm.
+ * <p> For more information see
+ * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Maze algorithms</a>
+ * <p> Every cell starts as a tree of its own. The inner walls are taken in random order,
+ * and a wall is removed if the cells on its sides are in different trees, joining them.
+ * The trees are kept in a union-find forest over an <code>int</code> array with union by rank
+ * and path halving, so a step is almost O(1).
+ * <p> The walls are shuffled lazily, one pick of the Fisher-Yates shuffle per step,
+ * and the carving stops as soon as all the cells are joined. A wall is kept in
+ * a single <code>int</code>: the cell for its right wall and <code>~cell</code> for its bottom one.
+ * Takes about 13 bytes per cell.
+ * <p> The mazes have many short dead ends and are easy to solve.
+ */
+final class KruskalMazeMaker implements MazeGenerator {
+
+	@Override
+	public void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+		long inner = ( long ) ( grid.cols - 1 ) * grid.rows + ( long ) ( grid.rows - 1 ) * grid.cols;
+		if( inner > Integer.MAX_VALUE - 8 ) {
+			throw new IllegalArgumentException( "Too large grid for Kruskal's algorithm: " + grid.size() );
+		}
+
+		int[] walls = new int[ ( int ) inner ];
+		int count = 0;
+		for( int cell = 0; cell < grid.size(); cell++ ) {
+			if( grid.col( cell ) < grid.cols - 1 ) walls[ count++ ] = cell;
+			if( grid.row( cell ) < grid.rows - 1 ) walls[ count++ ] = ~cell;
+		}
+
+		int[] parent = new int[ grid.size() ];
+		for( int cell = 0; cell < parent.length; cell++ ) {
+			parent[ cell ] = cell;
+		}
+		byte[] rank = new byte[ grid.size() ];
+		long[] carved = new long[ ( grid.size() + 63 ) >>> 6 ];
+
+		int joins = grid.size() - 1;
+		for( int i = count - 1; i >= 0 && joins > 0; i-- ) {
+			int pick = rand.nextInt( i + 1 );
+			int wall = walls[ pick ];
+			walls[ pick ] = walls[ i ];
+
+			int cell = ( wall >= 0 ) ? wall : ~wall;
+			int other = ( wall >= 0 ) ? cell + 1 : cell + grid.cols;
+			int a = find( parent, cell );
+			int b = find( parent, other );
+			if( a == b ) continue;
+
+			if( rank[ a ] < rank[ b ] ) {
+				parent[ a ] = b;
+			} else {
+				parent[ b ] = a;
+				if( rank[ a ] == rank[ b ] ) rank[ a ]++;
+			}
+			joins--;
+
+			if( wall >= 0 ) {
+				grid.removeRightWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell );
+			} else {
+				grid.removeBottomWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, cell );
+			}
+			carveOnce( carved, cell, listener );
+			carveOnce( carved, other, listener );
+		}
+	}
+
+
+	/**
+	 * @return the root of the tree of the cell, halving the path to it
+	 */
+	private static int find( int[] parent, int cell ) {
+		while( parent[ cell ] != cell ) {
+			parent[ cell ] = parent[ parent[ cell ] ];
+			cell = parent[ cell ];
+		}
+		return cell;
+	}
+
+
+	private static void carveOnce( long[] carved, int cell, MazeListener listener ) throws InterruptedException {
+		if( ( carved[ cell >>> 6 ] & ( 1L << cell ) ) != 0 ) return;
+		carved[ cell >>> 6 ] |= 1L << cell;
+		listener.onEvent( MazeEvent.CARVE, cell );
+	}
+}
@@ -0,0 +1,149 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The landmark (ALT) heuristic for the repeated queries in one maze.
+ * <p> Stores the walking distances from a few landmark cells to every cell.
+ * By the triangle inequality, <code>|d(L, a) - d(L, b)|</code> never exceeds
+ * the distance between <code>a</code> and <code>b</code>, so the largest
+ * of these bounds is an admissible and consistent heuristic. It is usually many
+ * times closer to the true distance than the Manhattan one.
+ * <p> The landmarks are picked one by one as the cell farthest from the ones
+ * already picked. Each of them costs a breadth-first search of the grid
+ * and 4 bytes per cell; the distances of a cell are kept together to read
+ * them in one go.
+ * <p> The distances are computed for the current walls, so the landmarks
+ * must be rebuilt when the walls change.
+ * <p> See A. V. Goldberg, C. Harrelson, "Computing the Shortest Path:
+ * A* Search Meets Graph Theory".
+ */
+public final class Landmarks {
+	public static final int DEFAULT_COUNT = 8;
+
+	private final Grid grid;
+	private final int count;
+	private final int[] landmarks;
+
+	// distance[ cell * count + k ] is the distance from the k-th landmark, -1 if it is unreachable
+	private final int[] distance;
+
+
+	/**
+	 * Picks the landmarks and computes the distances from them.
+	 *
+	 * @param grid  the labyrinth to be solved
+	 * @param count the number of landmarks
+	 */
+	public Landmarks( Grid grid, int count ) {
+		if( ( long ) grid.size() * count > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException( "Too many landmarks for the grid: " + count );
+		}
+		this.grid = grid;
+		this.count = count;
+		landmarks = new int[ count ];
+		distance = new int[ grid.size() * count ];
+
+		int[] queue = new int[ grid.size() ];
+		int[] nearest = new int[ grid.size() ];
+		Arrays.fill( nearest, Integer.MAX_VALUE );
+		int landmark = farthest( 0, queue, nearest );
+		for( int k = 0; k < count; k++ ) {
+			landmarks[ k ] = landmark;
+			landmark = search( landmark, k, queue, nearest );
+		}
+	}
+
+
+	/**
+	 * @return the landmark cells
+	 */
+	public int[] landmarks() {
+		return landmarks.clone();
+	}
+
+
+	/**
+	 * @return the size of the distance table in bytes
+	 */
+	public long bytes() {
+		return 4L * distance.length;
+	}
+
+
+	/**
+	 * @return the lower bound of the walking distance between two cells,
+	 * not less than the Manhattan one
+	 */
+	public int estimate( int cell, int goal ) {
+		int h = grid.manhattan( cell, goal );
+		int c = cell * count;
+		int t = goal * count;
+		for( int k = 0; k < count; k++ ) {
+			int a = distance[ c + k ];
+			int b = distance[ t + k ];
+			if( a >= 0 && b >= 0 ) {
+				h = Math.max( h, Math.abs( a - b ) );
+			}
+		}
+		return h;
+	}
+
+
+	/**
+	 * @return the cell farthest from the source, used as the first landmark
+	 */
+	private int farthest( int source, int[] queue, int[] nearest ) {
+		nearest[ source ] = 0;
+		int tail = 1;
+		queue[ 0 ] = source;
+		for( int head = 0; head < tail; head++ ) {
+			int cell = queue[ head ];
+			for( int direction = 0; direction < 4; direction++ ) {
+				int neighbor = grid.openNeighbor( cell, direction );
+				if( neighbor != -1 && nearest[ neighbor ] == Integer.MAX_VALUE ) {
+					nearest[ neighbor ] = 0;
+					queue[ tail++ ] = neighbor;
+				}
+			}
+		}
+		Arrays.fill( nearest, Integer.MAX_VALUE );
+		return queue[ tail - 1 ];
+	}
+
+
+	/**
+	 * Fills the distances from the k-th landmark by the breadth-first search.
+	 *
+	 * @param nearest the distances to the nearest landmark picked so far
+	 * @return the reachable cell farthest from all the landmarks picked so far
+	 */
+	private int search( int landmark, int k, int[] queue, int[] nearest ) {
+		for( int i = k; i < distance.length; i += count ) {
+			distance[ i ] = -1;
+		}
+		distance[ landmark * count + k ] = 0;
+		int tail = 1;
+		queue[ 0 ] = landmark;
+		for( int head = 0; head < tail; head++ ) {
+			int cell = queue[ head ];
+			int d = distance[ cell * count + k ];
+			for( int direction = 0; direction < 4; direction++ ) {
+				int neighbor = grid.openNeighbor( cell, direction );
+				if( neighbor != -1 && distance[ neighbor * count + k ] == -1 ) {
+					distance[ neighbor * count + k ] = d + 1;
+					queue[ tail++ ] = neighbor;
+				}
+			}
+		}
+
+		int next = landmark;
+		for( int i = 0; i < tail; i++ ) {
+			int cell = queue[ i ];
+			nearest[ cell ] = Math.min( nearest[ cell ], distance[ cell * count + k ] );
+			if( nearest[ cell ] > nearest[ next ] ) next = cell;
+		}
+		return next;
+	}
+}
@@ -0,0 +1,21 @@
+package maze.core;
+
+
+/**
+ * The generated maze: the grid with its start and goal cells
+ * and the seed it has been generated from.
+ */
+public final class Maze {
+	public final Grid grid;
+	public final int start;
+	public final int goal;
+	public final long seed;
+
+
+	public Maze( Grid grid, int start, int goal, long seed ) {
+		this.grid = grid;
+		this.start = start;
+		this.goal = goal;
+		this.seed = seed;
+	}
+}
@@ -0,0 +1,202 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * The headless maze engine.
+ * <p> Generates and solves mazes without any rendering. The progress may be observed
+ * with an optional <code>MazeListener</code>, which is the way the GUI draws it.
+ * <p> A maze depends only on its size, the number of gates and the seed: all the randomness
+ * comes from a <code>SplittableRandom</code> created for the run, so the same seed always
+ * gives the same maze, on any number of threads.
+ * <p> Every generation and search is recorded in <code>Metrics</code>.
+ */
+public abstract class MazeEngine {
+
+	/**
+	 * Generates a new random maze.
+	 *
+	 * @param rows  the total number of rows
+	 * @param cols  the total number of columns, at least two cells in total
+	 * @param gates the number of extra gates
+	 * @param seed  the seed of the random generator
+	 * @return the generated maze with the random start and goal
+	 */
+	public static Maze generate( int rows, int cols, int gates, long seed ) {
+		try {
+			return generate( new Grid( rows, cols ), gates, seed, MazeListener.SILENT );
+		} catch( InterruptedException e ) {
+			throw new AssertionError( e );
+		}
+	}
+
+
+	/**
+	 * Generates a new random maze in the existing grid with the recursive backtracker.
+	 *
+	 * @param grid     the grid to be carved, all its walls are restored first, at least two cells
+	 * @param gates    the number of extra gates
+	 * @param seed     the seed of the random generator
+	 * @param listener receives the progress
+	 * @return the generated maze with the random start and goal
+	 * @throws InterruptedException if the listener has stopped the generation
+	 */
+	public static Maze generate( Grid grid, int gates, long seed, MazeListener listener )
+			throws InterruptedException {
+		return generate( grid, GenerationMode.BACKTRACKER, gates, seed, listener );
+	}
+
+
+	/**
+	 * Generates a new random maze in the existing grid with the specified algorithm.
+	 *
+	 * @param grid     the grid to be carved, all its walls are restored first, at least two cells
+	 * @param mode     the generation algorithm
+	 * @param gates    the number of extra gates
+	 * @param seed     the seed of the random generator
+	 * @param listener receives the progress
+	 * @return the generated maze with the random start and goal
+	 * @throws InterruptedException if the listener has stopped the generation
+	 */
+	public static Maze generate( Grid grid, GenerationMode mode, int gates, long seed, MazeListener listener )
+			throws InterruptedException {
+		checkSize( grid );
+		GenerationEvent event = new GenerationEvent();
+		event.begin();
+		long begin = System.nanoTime();
+		SplittableRandom rand = new SplittableRandom( seed );
+		grid.reset();
+		mode.generator().carve( grid, rand, listener );
+		long carved = System.nanoTime();
+		int added = RandomMazeMaker.addExtraGates( grid, gates, rand, listener );
+		Metrics.generation( event, mode, grid, seed, carved - begin, System.nanoTime() - carved, added );
+		Maze maze = RandomMazeMaker.setStartAndGoal( grid, rand, seed );
+		listener.onEvent( MazeEvent.START, maze.start );
+		listener.onEvent( MazeEvent.GOAL, maze.goal );
+		return maze;
+	}
+
+
+	/**
+	 * Generates a new random maze in the existing grid on several threads.
+	 * <p> The maze is carved by tiles, see <code>ParallelMazeMaker</code>,
+	 * the extra gates are made after it.
+	 *
+	 * @param grid  the grid to be carved, all its walls are restored first, at least two cells
+	 * @param gates the number of extra gates
+	 * @param seed  the seed of the random generator
+	 * @param pool  runs the carving
+	 * @return the generated maze with the random start and goal
+	 */
+	public static Maze generate( Grid grid, int gates, long seed, ForkJoinPool pool ) {
+		return generate( grid, GenerationMode.BACKTRACKER, gates, seed, pool );
+	}
+
+
+	/**
+	 * Generates a new random maze in the existing grid with the specified algorithm
+	 * on several threads, if the algorithm can be split.
+	 *
+	 * @param grid  the grid to be carved, all its walls are restored first, at least two cells
+	 * @param mode  the generation algorithm
+	 * @param gates the number of extra gates
+	 * @param seed  the seed of the random generator
+	 * @param pool  runs the carving
+	 * @return the generated maze with the random start and goal
+	 */
+	public static Maze generate( Grid grid, GenerationMode mode, int gates, long seed, ForkJoinPool pool ) {
+		checkSize( grid );
+		GenerationEvent event = new GenerationEvent();
+		event.begin();
+		long begin = System.nanoTime();
+		SplittableRandom rand = new SplittableRandom( seed );
+		grid.reset();
+		mode.generator().carve( grid, rand, pool );
+		long carved = System.nanoTime();
+		int added;
+		try {
+			added = RandomMazeMaker.addExtraGates( grid, gates, rand, MazeListener.SILENT );
+		} catch( InterruptedException e ) {
+			throw new AssertionError( e );
+		}
+		Metrics.generation( event, mode, grid, seed, carved - begin, System.nanoTime() - carved, added );
+		return RandomMazeMaker.setStartAndGoal( grid, rand, seed );
+	}
+
+
+	/**
+	 * The start and the goal must be different cells.
+	 *
+	 * @throws IllegalArgumentException if the grid has less than two cells
+	 */
+	private static void checkSize( Grid grid ) {
+		if( grid.size() < 2 ) {
+			throw new IllegalArgumentException( "Too small maze: " + grid.rows + "x" + grid.cols );
+		}
+	}
+
+
+	/**
+	 * Finds the shortest path between two cells.
+	 *
+	 * @param grid  the labyrinth to be solved
+	 * @param start the start cell
+	 * @param goal  the goal cell
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 */
+	public static int[] solve( Grid grid, int start, int goal ) {
+		try {
+			return solve( grid, start, goal, MazeListener.SILENT );
+		} catch( InterruptedException e ) {
+			throw new AssertionError( e );
+		}
+	}
+
+
+	/**
+	 * Finds the shortest path between two cells.
+	 *
+	 * @param grid     the labyrinth to be solved
+	 * @param start    the start cell
+	 * @param goal     the goal cell
+	 * @param listener receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	public static int[] solve( Grid grid, int start, int goal, MazeListener listener )
+			throws InterruptedException {
+		return solve( grid, start, goal, SearchMode.A_STAR, listener );
+	}
+
+
+	/**
+	 * Finds the shortest path between two cells with the specified algorithm.
+	 *
+	 * @param grid     the labyrinth to be solved
+	 * @param start    the start cell
+	 * @param goal     the goal cell
+	 * @param mode     the pathfinding algorithm
+	 * @param listener receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	public static int[] solve( Grid grid, int start, int goal, SearchMode mode, MazeListener listener )
+			throws InterruptedException {
+		listener.onEvent( MazeEvent.START, start );
+		listener.onEvent( MazeEvent.GOAL, goal );
+		PathFinder finder = mode.create( grid );
+
+		// The preprocessing of the mode isn't a part of the search
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long begin = System.nanoTime();
+		int[] path = finder.findPath( start, goal, listener );
+		Metrics.search( event, mode, grid, start, goal, path, finder.stats(), System.nanoTime() - begin );
+		return path;
+	}
+}
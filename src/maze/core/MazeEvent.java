@@ -0,0 +1,22 @@
+package maze.core;
+
+
+/**
+ * Describes a single step of the maze generation or pathfinding.
+ * <p> Every event refers to one cell of the <code>Grid</code>.
+ * <p> <code>MARK</code> - the cell is reached by the generator.
+ * <p> <code>CARVE</code> - the generator has left the cell, now it is a passage.
+ * <p> <code>REMOVE_RIGHT_WALL</code> - the right wall of the cell is removed.
+ * <p> <code>REMOVE_BOTTOM_WALL</code> - the bottom wall of the cell is removed.
+ * <p> <code>OPEN</code> - the cell is added to the open set (A*).
+ * <p> <code>CLOSE</code> - the cell is moved to the closed set (A*).
+ * <p> <code>PATH</code> - the next cell of the found path, from the goal to the start.
+ * <p> <code>START</code> - the cell is the start of the maze.
+ * <p> <code>GOAL</code> - the cell is the goal of the maze.
+ * <p> <code>OPEN_BACKWARD</code> - the cell is added to the open set of the backward search
+ * (bidirectional A*).
+ * <p> <code>CLOSE_BACKWARD</code> - the cell is moved to the closed set of the backward search.
+ */
+public enum MazeEvent {
+	MARK, CARVE, REMOVE_RIGHT_WALL, REMOVE_BOTTOM_WALL, OPEN, CLOSE, PATH, START, GOAL, OPEN_BACKWARD, CLOSE_BACKWARD
+}
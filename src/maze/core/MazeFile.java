@@ -0,0 +1,225 @@
+package maze.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Saves and opens mazes in the binary maze file.
+ * <p> The file starts with a header of little-endian values:
+ * <ul>
+ * <li>magic <code>"MZGR"</code> and the version (ints);</li>
+ * <li>the number of rows and columns (ints);</li>
+ * <li>the start and the goal cell (ints);</li>
+ * <li>the seed of the maze (long).</li>
+ * </ul>
+ * <p> Then the walls follow: <code>Grid.words( rows, cols )</code> little-endian longs,
+ * packed as in <code>Grid</code>. The header takes 32 bytes, so the walls are
+ * aligned and the grid of an opened maze is backed by the mapped file directly:
+ * opening doesn't depend on the maze size, the pages are read on demand, and
+ * several processes opening the same file share them.
+ * <p> The walls take 2 bits per cell, so the largest possible file
+ * (<code>Integer.MAX_VALUE</code> cells) is about 512 MB and fits a single mapping.
+ * <p> A maze generated row by row is written with <code>RowWriter</code>
+ * without keeping the whole grid in memory.
+ */
+public abstract class MazeFile {
+	static final int MAGIC = 0x5247_5A4D; // "MZGR" in little-endian
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 6 * Integer.BYTES + Long.BYTES;
+
+
+	/**
+	 * Writes the maze to the file through a mapped buffer.
+	 *
+	 * @param maze the maze to be saved
+	 * @param file the file, replaced if it exists
+	 * @throws IOException
+	 */
+	public static void write( Maze maze, Path file ) throws IOException {
+		Grid grid = maze.grid;
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+			MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0,
+					HEADER_SIZE + ( long ) grid.wallWords() * Long.BYTES );
+			buffer.order( ByteOrder.LITTLE_ENDIAN );
+			buffer.putInt( MAGIC );
+			buffer.putInt( VERSION );
+			buffer.putInt( grid.rows );
+			buffer.putInt( grid.cols );
+			buffer.putInt( maze.start );
+			buffer.putInt( maze.goal );
+			buffer.putLong( maze.seed );
+			LongBuffer walls = buffer.asLongBuffer();
+			for( int i = 0; i < grid.wallWords(); i++ ) {
+				walls.put( i, grid.getWallWord( i ) );
+			}
+			buffer.force();
+		}
+	}
+
+
+	/**
+	 * Maps the file as a read-only maze.
+	 * <p> The grid of the maze reads the walls from the file and can't be changed,
+	 * copy it with <code>new Grid( maze.grid )</code> to edit it.
+	 *
+	 * @param file the maze file
+	 * @return the maze backed by the file
+	 * @throws IOException if the file isn't a maze file of the supported version
+	 */
+	public static Maze open( Path file ) throws IOException {
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+			if( channel.size() < HEADER_SIZE ) throw new IOException( "Not a maze file" );
+
+			MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			buffer.order( ByteOrder.LITTLE_ENDIAN );
+			if( buffer.getInt() != MAGIC ) throw new IOException( "Not a maze file" );
+			int version = buffer.getInt();
+			if( version != VERSION ) throw new IOException( "Unsupported maze file version: " + version );
+
+			int rows = buffer.getInt();
+			int cols = buffer.getInt();
+			int start = buffer.getInt();
+			int goal = buffer.getInt();
+			long seed = buffer.getLong();
+			long cells = ( long ) rows * cols;
+			if( rows <= 0 || cols <= 0 || cells > Integer.MAX_VALUE ) {
+				throw new IOException( "Wrong maze size: " + rows + "x" + cols );
+			}
+			if( channel.size() != HEADER_SIZE + ( long ) Grid.words( rows, cols ) * Long.BYTES ) {
+				throw new IOException( "Wrong maze file size: " + channel.size() );
+			}
+			if( start < 0 || start >= cells || goal < 0 || goal >= cells ) {
+				throw new IOException( "Wrong start or goal cell" );
+			}
+
+			// The mapping stays valid after the channel is closed
+			return new Maze( new Grid( rows, cols, buffer.asLongBuffer() ), start, goal, seed );
+		}
+	}
+
+
+	/**
+	 * Writes the maze file row by row.
+	 * <p> The rows are packed into the words of the walls as they come,
+	 * so only a small buffer is kept in memory.
+	 */
+	public static final class RowWriter implements EllerMazeMaker.RowSink, Closeable {
+		private static final int BUFFER_SIZE = 1 << 16;
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE ).order( ByteOrder.LITTLE_ENDIAN );
+		private final int rows;
+		private final int cols;
+		private long rowsWritten = 0;
+
+		// The bits which don't fill a word yet
+		private long pending = 0;
+		private int pendingBits = 0;
+
+
+		/**
+		 * Creates the file and writes its header.
+		 *
+		 * @param file  the file, replaced if it exists
+		 * @param rows  the total number of rows
+		 * @param cols  the total number of columns
+		 * @param start the start cell
+		 * @param goal  the goal cell
+		 * @param seed  the seed of the maze
+		 * @throws IOException
+		 */
+		public RowWriter( Path file, int rows, int cols, int start, int goal, long seed ) throws IOException {
+			if( ( long ) rows * cols > Integer.MAX_VALUE ) {
+				throw new IllegalArgumentException( "Too large maze: " + rows + "x" + cols );
+			}
+			this.rows = rows;
+			this.cols = cols;
+			channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING );
+			buffer.putInt( MAGIC );
+			buffer.putInt( VERSION );
+			buffer.putInt( rows );
+			buffer.putInt( cols );
+			buffer.putInt( start );
+			buffer.putInt( goal );
+			buffer.putLong( seed );
+		}
+
+
+		@Override
+		public void acceptRow( long row, long[] walls ) throws IOException {
+			if( row != rowsWritten || row >= rows ) {
+				throw new IllegalStateException( "Unexpected row " + row );
+			}
+			for( int bits = 2 * cols, i = 0; bits > 0; bits -= 64, i++ ) {
+				append( walls[ i ], Math.min( bits, 64 ) );
+			}
+			rowsWritten++;
+		}
+
+
+		/**
+		 * Appends the lowest bits of the word to the walls.
+		 *
+		 * @param word  the bits, the ones above the count must be zero
+		 * @param count the number of the bits
+		 */
+		private void append( long word, int count ) throws IOException {
+			int free = 64 - pendingBits;
+			pending |= word << pendingBits;
+			if( count < free ) {
+				pendingBits += count;
+				return;
+			}
+			putLong( pending );
+			pending = ( free == 64 ) ? 0 : word >>> free;
+			pendingBits = count - free;
+		}
+
+
+		private void putLong( long word ) throws IOException {
+			if( buffer.remaining() < Long.BYTES ) flush();
+			buffer.putLong( word );
+		}
+
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while( buffer.hasRemaining() ) {
+				channel.write( buffer );
+			}
+			buffer.clear();
+		}
+
+
+		/**
+		 * Writes the rest of the walls and closes the file.
+		 *
+		 * @throws IOException if not all the rows have been written
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				if( pendingBits > 0 ) {
+					putLong( pending );
+					pendingBits = 0;
+				}
+				flush();
+				if( rowsWritten != rows ) {
+					throw new IOException( "Only " + rowsWritten + " of " + rows + " rows have been written" );
+				}
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
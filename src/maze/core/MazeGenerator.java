@@ -0,0 +1,41 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Carves a perfect maze: a spanning tree of the cells, so there is exactly
+ * one path between any two of them.
+ * <p> The grid must have all the walls before the call. All the randomness
+ * comes from the given generator, so the same seed gives the same maze.
+ */
+public interface MazeGenerator {
+
+	/**
+	 * Carves the maze on the calling thread.
+	 *
+	 * @param grid     the labyrinth grid with all the walls
+	 * @param rand     the source of randomness
+	 * @param listener receives the progress
+	 * @throws InterruptedException if the listener has stopped the generation
+	 */
+	void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException;
+
+
+	/**
+	 * Carves the maze on several threads.
+	 * <p> The generators which can't be split run on the calling thread, which is the default.
+	 *
+	 * @param grid the labyrinth grid with all the walls
+	 * @param rand the source of randomness
+	 * @param pool runs the parts of the carving
+	 */
+	default void carve( Grid grid, SplittableRandom rand, ForkJoinPool pool ) {
+		try {
+			carve( grid, rand, MazeListener.SILENT );
+		} catch( InterruptedException e ) {
+			throw new AssertionError( e );
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package maze.core;
+
+
+/**
+ * Receives the progress of the maze generation or pathfinding.
+ * <p> Called from the thread running the algorithm right after the change is made.
+ */
+public interface MazeListener {
+
+	/**
+	 * The listener which ignores all the events.
+	 */
+	MazeListener SILENT = ( event, cell ) -> {};
+
+
+	/**
+	 * @param event what has happened
+	 * @param cell  the index of the cell in the grid
+	 * @throws InterruptedException if the algorithm has to be stopped
+	 */
+	void onEvent( MazeEvent event, int cell ) throws InterruptedException;
+}
@@ -0,0 +1,183 @@
+package maze.core;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * The totals of the generations and the searches made by <code>MazeEngine</code>
+ * and <code>BatchSolver</code> since the start or the last reset.
+ * <p> The totals are added once per operation, the hot loops count only
+ * into the plain fields of the open set, see <code>SearchStats</code>.
+ * The adders keep the concurrent searches of a batch from contending.
+ * <p> Each operation is also emitted as a JDK Flight Recorder event,
+ * <code>maze.Generation</code> or <code>maze.Search</code>, when a recording is on.
+ */
+public abstract class Metrics {
+	private static final LongAdder generations = new LongAdder();
+	private static final LongAdder carveNanos = new LongAdder();
+	private static final LongAdder gatesNanos = new LongAdder();
+	private static final LongAdder gatesAdded = new LongAdder();
+
+	private static final LongAdder searches = new LongAdder();
+	private static final LongAdder searchNanos = new LongAdder();
+	private static final LongAdder expanded = new LongAdder();
+	private static final LongAdder pushes = new LongAdder();
+	private static final LongAdder decreases = new LongAdder();
+	private static final LongAccumulator maxOpenSet = new LongAccumulator( Math::max, 0 );
+
+
+	public static long generations() {
+		return generations.sum();
+	}
+
+
+	/**
+	 * @return the time of carving the passages, in nanoseconds
+	 */
+	public static long carveNanos() {
+		return carveNanos.sum();
+	}
+
+
+	/**
+	 * @return the time of making the extra gates, in nanoseconds
+	 */
+	public static long gatesNanos() {
+		return gatesNanos.sum();
+	}
+
+
+	public static long gatesAdded() {
+		return gatesAdded.sum();
+	}
+
+
+	public static long searches() {
+		return searches.sum();
+	}
+
+
+	/**
+	 * @return the time of the searches, in nanoseconds
+	 */
+	public static long searchNanos() {
+		return searchNanos.sum();
+	}
+
+
+	public static long expanded() {
+		return expanded.sum();
+	}
+
+
+	public static long pushes() {
+		return pushes.sum();
+	}
+
+
+	public static long decreases() {
+		return decreases.sum();
+	}
+
+
+	/**
+	 * @return the largest open set of a single search
+	 */
+	public static long maxOpenSet() {
+		return maxOpenSet.get();
+	}
+
+
+	public static void reset() {
+		generations.reset();
+		carveNanos.reset();
+		gatesNanos.reset();
+		gatesAdded.reset();
+		searches.reset();
+		searchNanos.reset();
+		expanded.reset();
+		pushes.reset();
+		decreases.reset();
+		maxOpenSet.reset();
+	}
+
+
+	/**
+	 * @return the totals in a human-readable form
+	 */
+	public static String report() {
+		return String.format( "generations %d: carving %.1f ms, gates %.1f ms, %d gates added%n" +
+						"searches %d: %.1f ms, expanded %d, pushes %d, decreases %d, max open set %d",
+				generations(), carveNanos() / 1e6, gatesNanos() / 1e6, gatesAdded(),
+				searches(), searchNanos() / 1e6, expanded(), pushes(), decreases(), maxOpenSet() );
+	}
+
+
+	/**
+	 * Records a finished generation.
+	 *
+	 * @param event      the event begun before the carving, ended and committed here
+	 * @param mode       the generation algorithm
+	 * @param grid       the generated grid
+	 * @param seed       the seed of the maze
+	 * @param carveNanos the time of carving the passages
+	 * @param gatesNanos the time of making the extra gates
+	 * @param gates      the number of the extra gates made
+	 */
+	static void generation( GenerationEvent event, GenerationMode mode, Grid grid, long seed, long carveNanos,
+			long gatesNanos, int gates ) {
+		event.end();
+		Metrics.generations.increment();
+		Metrics.carveNanos.add( carveNanos );
+		Metrics.gatesNanos.add( gatesNanos );
+		Metrics.gatesAdded.add( gates );
+		if( event.shouldCommit() ) {
+			event.mode = mode.name();
+			event.rows = grid.rows;
+			event.cols = grid.cols;
+			event.seed = seed;
+			event.carveNanos = carveNanos;
+			event.gatesNanos = gatesNanos;
+			event.gatesAdded = gates;
+			event.commit();
+		}
+	}
+
+
+	/**
+	 * Records a finished search.
+	 *
+	 * @param event  the event begun before the search, ended and committed here
+	 * @param mode   the pathfinding algorithm
+	 * @param grid   the solved grid
+	 * @param start  the start cell
+	 * @param goal   the goal cell
+	 * @param path   the found path, null if there is no path
+	 * @param stats  the counters of the search
+	 * @param nanos  the time of the search
+	 */
+	static void search( SearchEvent event, SearchMode mode, Grid grid, int start, int goal, int[] path,
+			SearchStats stats, long nanos ) {
+		event.end();
+		searches.increment();
+		searchNanos.add( nanos );
+		expanded.add( stats.expanded );
+		pushes.add( stats.pushes );
+		decreases.add( stats.decreases );
+		maxOpenSet.accumulate( stats.maxOpenSet );
+		if( event.shouldCommit() ) {
+			event.mode = mode.name();
+			event.rows = grid.rows;
+			event.cols = grid.cols;
+			event.start = start;
+			event.goal = goal;
+			event.pathLength = ( path != null ) ? path.length - 1 : -1;
+			event.expanded = stats.expanded;
+			event.pushes = stats.pushes;
+			event.decreases = stats.decreases;
+			event.maxOpenSet = stats.maxOpenSet;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package maze.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Creates a random maze on several threads.
+ * <p> The grid is split into tiles, each of them is carved by the recursive
+ * backtracker independently with its own random generator. Then the tiles are
+ * joined into a single spanning tree: the tiles form a small maze of their own,
+ * and one random wall is opened on the border of each pair of tiles joined in it.
+ * A spanning tree of every tile plus a spanning tree of the tiles is a spanning
+ * tree of the grid, so the result is a perfect maze.
+ * <p> The tiles are carved by rows: a row of tiles is a task. The height of a tile
+ * is a multiple of 32 rows, so a row of tiles starts at a word boundary of the
+ * wall bitset and no two tasks ever modify the same word.
+ * <p> The random generators of the tiles are split from the given one in advance,
+ * so the maze doesn't depend on the number of threads and the workers
+ * never share a generator.
+ */
+public abstract class ParallelMazeMaker {
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	// 32 rows of any width take a whole number of 64-bit words
+	private static final int ROW_ALIGNMENT = 32;
+
+
+	/**
+	 * Carves a perfect maze in the grid.
+	 * <p> The grid must have all the walls before the call.
+	 *
+	 * @param grid     the labyrinth grid
+	 * @param tileSize the width of a tile, at least 1, its height is rounded up to a multiple of 32
+	 * @param rand     the source of randomness
+	 * @param pool     runs the carving of the tiles
+	 * @throws IllegalArgumentException if the tile size is less than 1
+	 */
+	public static void carvePassages( Grid grid, int tileSize, SplittableRandom rand, ForkJoinPool pool ) {
+		if( tileSize < 1 ) throw new IllegalArgumentException( "Too small tile: " + tileSize );
+		int tileWidth = Math.min( tileSize, grid.cols );
+		int tileHeight = ( Math.min( tileSize, grid.rows ) + ROW_ALIGNMENT - 1 ) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+		Grid tiles = new Grid( ( grid.rows + tileHeight - 1 ) / tileHeight, ( grid.cols + tileWidth - 1 ) / tileWidth );
+
+		SplittableRandom[] rands = new SplittableRandom[ tiles.size() ];
+		for( int tile = 0; tile < rands.length; tile++ ) {
+			rands[ tile ] = rand.split();
+		}
+		pool.invoke( new Carving( grid, tiles, tileHeight, tileWidth, rands, 0, tiles.rows ) );
+
+		try {
+			RandomMazeMaker.carvePassage( tiles, rand.nextInt( tiles.size() ), rand, MazeListener.SILENT );
+		} catch( InterruptedException e ) {
+			throw new AssertionError( e );
+		}
+
+		for( int tile = 0; tile < tiles.size(); tile++ ) {
+			int top = tiles.row( tile ) * tileHeight;
+			int left = tiles.col( tile ) * tileWidth;
+			int bottom = Math.min( top + tileHeight, grid.rows ) - 1;
+			int right = Math.min( left + tileWidth, grid.cols ) - 1;
+			if( !tiles.hasRightWall( tile ) ) {
+				grid.removeRightWall( grid.index( top + rand.nextInt( bottom - top + 1 ), right ) );
+			}
+			if( !tiles.hasBottomWall( tile ) ) {
+				grid.removeBottomWall( grid.index( bottom, left + rand.nextInt( right - left + 1 ) ) );
+			}
+		}
+	}
+
+
+	/**
+	 * Recursive backtracker algorithm inside a tile,
+	 * see <code>RandomMazeMaker.carvePassage</code>.
+	 * <p> The cells are addressed inside the tile and the carved ones
+	 * are kept in a bitset, so the cells outside the tile are never read.
+	 *
+	 * @param stack   the stack of the size of the tile
+	 * @param visited the bitset of the size of the tile
+	 */
+	private static void carveTile( Grid grid, int top, int left, int height, int width, SplittableRandom rand,
+	                               int[] stack, long[] visited ) {
+		Arrays.fill( visited, 0L );
+		int first = rand.nextInt( height * width );
+		int size = 0;
+
+		stack[ size++ ] = first;
+		visited[ first >>> 6 ] |= 1L << first;
+
+		while( size > 0 ) {
+			int cell = stack[ size - 1 ];
+			int row = cell / width;
+			int col = cell - row * width;
+
+			boolean topOK = row > 0 && !isVisited( visited, cell - width );
+			boolean bottomOK = row < height - 1 && !isVisited( visited, cell + width );
+			boolean leftOK = col > 0 && !isVisited( visited, cell - 1 );
+			boolean rightOK = col < width - 1 && !isVisited( visited, cell + 1 );
+
+			// There are no suitable neighbors - step back
+			if( !( topOK || bottomOK || leftOK || rightOK ) ) {
+				size--;
+				continue;
+			}
+
+			int gridCell = grid.index( top + row, left + col );
+			int next;
+			if( rand.nextBoolean() && ( topOK || bottomOK ) || !( leftOK || rightOK ) ) {
+				if( rand.nextBoolean() && bottomOK || !topOK ) {
+					next = cell + width;
+					grid.removeBottomWall( gridCell );
+				} else {
+					next = cell - width;
+					grid.removeBottomWall( gridCell - grid.cols );
+				}
+			} else {
+				if( rand.nextBoolean() && rightOK || !leftOK ) {
+					next = cell + 1;
+					grid.removeRightWall( gridCell );
+				} else {
+					next = cell - 1;
+					grid.removeRightWall( gridCell - 1 );
+				}
+			}
+
+			visited[ next >>> 6 ] |= 1L << next;
+			stack[ size++ ] = next;
+		}
+	}
+
+
+	private static boolean isVisited( long[] visited, int cell ) {
+		return ( visited[ cell >>> 6 ] & ( 1L << cell ) ) != 0;
+	}
+
+
+	/**
+	 * Carves the rows of tiles, splitting them in halves between the workers.
+	 */
+	@SuppressWarnings( "serial" )
+	private static final class Carving extends RecursiveAction {
+		private final Grid grid;
+		private final Grid tiles;
+		private final int tileHeight;
+		private final int tileWidth;
+		private final SplittableRandom[] rands;
+		private final int from;
+		private final int to;
+
+
+		Carving( Grid grid, Grid tiles, int tileHeight, int tileWidth, SplittableRandom[] rands, int from, int to ) {
+			this.grid = grid;
+			this.tiles = tiles;
+			this.tileHeight = tileHeight;
+			this.tileWidth = tileWidth;
+			this.rands = rands;
+			this.from = from;
+			this.to = to;
+		}
+
+
+		@Override
+		protected void compute() {
+			if( to - from > 1 ) {
+				int middle = ( from + to ) >>> 1;
+				invokeAll( new Carving( grid, tiles, tileHeight, tileWidth, rands, from, middle ),
+						new Carving( grid, tiles, tileHeight, tileWidth, rands, middle, to ) );
+				return;
+			}
+
+			int top = from * tileHeight;
+			int height = Math.min( tileHeight, grid.rows - top );
+			int[] stack = new int[ height * tileWidth ];
+			long[] visited = new long[ ( height * tileWidth + 63 ) >>> 6 ];
+			for( int tile = tiles.index( from, 0 ); tile < tiles.index( from + 1, 0 ); tile++ ) {
+				int left = tiles.col( tile ) * tileWidth;
+				int width = Math.min( tileWidth, grid.cols - left );
+				carveTile( grid, top, left, height, width, rands[ tile ], stack, visited );
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package maze.core;
+
+
+/**
+ * Finds the shortest paths in a single grid.
+ * <p> An instance keeps its search data between the calls,
+ * so it mustn't be used by several threads at once. Each thread
+ * should use its own copy instead.
+ */
+public interface PathFinder {
+
+	/**
+	 * @param start    the start cell
+	 * @param goal     the goal cell
+	 * @param listener receives the progress
+	 * @return cells of the path from the start to the goal (both inclusive),
+	 * null if there is no path
+	 * @throws InterruptedException if the listener has stopped the search
+	 */
+	int[] findPath( int start, int goal, MazeListener listener ) throws InterruptedException;
+
+
+	/**
+	 * @return the counters of the last search
+	 */
+	SearchStats stats();
+
+
+	/**
+	 * Creates a finder sharing the preprocessed data of this one, such as
+	 * a graph or a heuristic table, but having its own search data.
+	 * <p> The finders without any search data kept between the calls
+	 * may return themselves, which is the default.
+	 *
+	 * @return a finder of the same grid to be used by another thread
+	 */
+	default PathFinder copy() {
+		return this;
+	}
+}
@@ -0,0 +1,96 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Randomized Prim's algorithm.
+ * <p> For more information see
+ * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Maze algorithms</a>
+ * <p> The maze grows from a random cell. The frontier is the cells next to the maze,
+ * each step takes a random one of them, joins it to a random neighbor already in the maze
+ * and adds its own new neighbors to the frontier. The frontier is an <code>int</code> array
+ * with O(1) removal by moving its last cell into the hole.
+ * Takes 4 bytes per cell plus two bitsets.
+ * <p> The mazes have many short dead ends and a lot of branching around the first cell.
+ */
+final class PrimMazeMaker implements MazeGenerator {
+
+	@Override
+	public void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+		int[] frontier = new int[ grid.size() ];
+		long[] inMaze = new long[ ( grid.size() + 63 ) >>> 6 ];
+		long[] inFrontier = new long[ inMaze.length ];
+		int[] joined = new int[ 4 ];
+
+		int first = rand.nextInt( grid.size() );
+		set( inMaze, first );
+		listener.onEvent( MazeEvent.CARVE, first );
+		int count = addNeighbors( grid, first, frontier, 0, inMaze, inFrontier, listener );
+
+		while( count > 0 ) {
+			int pick = rand.nextInt( count );
+			int cell = frontier[ pick ];
+			frontier[ pick ] = frontier[ --count ];
+
+			int row = grid.row( cell );
+			int col = grid.col( cell );
+			int options = 0;
+			if( row > 0 && isSet( inMaze, cell - grid.cols ) ) joined[ options++ ] = cell - grid.cols;
+			if( col > 0 && isSet( inMaze, cell - 1 ) ) joined[ options++ ] = cell - 1;
+			if( col < grid.cols - 1 && isSet( inMaze, cell + 1 ) ) joined[ options++ ] = cell + 1;
+			if( row < grid.rows - 1 && isSet( inMaze, cell + grid.cols ) ) joined[ options++ ] = cell + grid.cols;
+
+			int neighbor = joined[ rand.nextInt( options ) ];
+			if( grid.row( neighbor ) == row ) {
+				int left = Math.min( cell, neighbor );
+				grid.removeRightWall( left );
+				listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, left );
+			} else {
+				int top = Math.min( cell, neighbor );
+				grid.removeBottomWall( top );
+				listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, top );
+			}
+			set( inMaze, cell );
+			listener.onEvent( MazeEvent.CARVE, cell );
+			count = addNeighbors( grid, cell, frontier, count, inMaze, inFrontier, listener );
+		}
+	}
+
+
+	/**
+	 * Adds the neighbors of the cell which are neither in the maze nor in the frontier.
+	 *
+	 * @return the new size of the frontier
+	 */
+	private static int addNeighbors( Grid grid, int cell, int[] frontier, int count, long[] inMaze,
+	                                 long[] inFrontier, MazeListener listener ) throws InterruptedException {
+		int row = grid.row( cell );
+		int col = grid.col( cell );
+		if( row > 0 ) count = add( cell - grid.cols, frontier, count, inMaze, inFrontier, listener );
+		if( col > 0 ) count = add( cell - 1, frontier, count, inMaze, inFrontier, listener );
+		if( col < grid.cols - 1 ) count = add( cell + 1, frontier, count, inMaze, inFrontier, listener );
+		if( row < grid.rows - 1 ) count = add( cell + grid.cols, frontier, count, inMaze, inFrontier, listener );
+		return count;
+	}
+
+
+	private static int add( int cell, int[] frontier, int count, long[] inMaze, long[] inFrontier,
+	                        MazeListener listener ) throws InterruptedException {
+		if( isSet( inMaze, cell ) || isSet( inFrontier, cell ) ) return count;
+		set( inFrontier, cell );
+		frontier[ count ] = cell;
+		listener.onEvent( MazeEvent.MARK, cell );
+		return count + 1;
+	}
+
+
+	private static boolean isSet( long[] bits, int cell ) {
+		return ( bits[ cell >>> 6 ] & ( 1L << cell ) ) != 0;
+	}
+
+
+	private static void set( long[] bits, int cell ) {
+		bits[ cell >>> 6 ] |= 1L << cell;
+	}
+}
@@ -0,0 +1,346 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Needed to create a random maze.
+ */
+public abstract class RandomMazeMaker {
+
+	/**
+	 * Recursive backtracker algorithm.
+	 * <p> For more information see
+	 * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Maze algorithms</a>
+	 * <p> The recursion is replaced with an explicit stack of cell indexes,
+	 * so the depth of the passage isn't limited by the thread stack size.
+	 * <p> A cell can be carved while it has all the four walls. The grid must have
+	 * all the walls before the call, the only exception is the first cell.
+	 *
+	 * @param grid     the labyrinth grid
+	 * @param first    the cell to start carving from
+	 * @param rand     the source of randomness
+	 * @param listener receives the progress
+	 * @throws InterruptedException
+	 */
+	public static void carvePassage( Grid grid, int first, SplittableRandom rand, MazeListener listener )
+			throws InterruptedException {
+
+		int[] stack = new int[ grid.size() ];
+		int top = 0;
+
+		stack[ top++ ] = first;
+		listener.onEvent( MazeEvent.MARK, first );
+
+		while( top > 0 ) {
+			int cell = stack[ top - 1 ];
+			int row = grid.row( cell );
+			int col = grid.col( cell );
+
+			boolean topOK = isBlock( grid, first, row - 1, col );
+			boolean bottomOK = isBlock( grid, first, row + 1, col );
+			boolean leftOK = isBlock( grid, first, row, col - 1 );
+			boolean rightOK = isBlock( grid, first, row, col + 1 );
+
+			// There are no suitable neighbors - step back
+			if( !( topOK || bottomOK || leftOK || rightOK ) ) {
+				top--;
+				listener.onEvent( MazeEvent.CARVE, cell );
+				continue;
+			}
+
+			int next;
+
+			// if (random) AND there are at least one suitable vertical neighbor
+			// or if there are no suitable horizontal neighbors
+			if( rand.nextBoolean() && ( topOK || bottomOK ) || !( leftOK || rightOK ) ) {
+
+				// if (random) AND if the bottom cell hasn't been carved
+				// or if the top cell has already been carved
+				if( rand.nextBoolean() && bottomOK || !topOK ) {
+					next = cell + grid.cols;
+					grid.removeBottomWall( cell );
+					listener.onEvent( MazeEvent.MARK, next );
+					listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, cell );
+				} else {
+					next = cell - grid.cols;
+					grid.removeBottomWall( next );
+					listener.onEvent( MazeEvent.MARK, next );
+					listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, next );
+				}
+			} else {
+
+				// if (random) AND if the right cell hasn't been carved
+				// or if the left cell has already been carved
+				if( rand.nextBoolean() && rightOK || !leftOK ) {
+					next = cell + 1;
+					grid.removeRightWall( cell );
+					listener.onEvent( MazeEvent.MARK, next );
+					listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell );
+				} else {
+					next = cell - 1;
+					grid.removeRightWall( next );
+					listener.onEvent( MazeEvent.MARK, next );
+					listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, next );
+				}
+			}
+
+			stack[ top++ ] = next;
+		}
+	}
+
+
+	/**
+	 * Checks if the cell specified by the column and the row can be carved.
+	 *
+	 * @param grid  the labyrinth grid
+	 * @param first the cell the carving has started from
+	 * @param row   the row to be checked
+	 * @param col   the column to be checked
+	 */
+	private static boolean isBlock( Grid grid, int first, int row, int col ) {
+		if( row < 0 || row >= grid.rows || col < 0 || col >= grid.cols ) {
+			return false;
+		}
+		int cell = grid.index( row, col );
+		return cell != first && grid.isClosed( cell );
+	}
+
+
+	/**
+	 * Makes exactly the given number of extra gates, or all the possible ones if there are fewer.
+	 * <p> A wall inside the maze with 1-cell indent from its border can become a gate
+	 * only if there is at least one border-line next to each 'end' of the gate.
+	 * The possible gates are marked in bitboards of the right and the bottom walls,
+	 * 64 cells at a time. Robert Floyd's sampling picks the ranks of the gates among
+	 * the possible ones without replacement, uniformly, with one random number per gate,
+	 * then one pass over the bitboards turns the ranks into the walls, skipping the words
+	 * without picked ones. So the time is linear in the maze size with a small constant,
+	 * plus the number of the gates.
+	 * <p> A gate takes a border-line away from the walls next to it, so a picked wall
+	 * is checked again before it is removed. The rare walls rejected so are made up for
+	 * by another pass over the gates still possible.
+	 *
+	 * @param grid     the labyrinth grid
+	 * @param gates    the number of gates to make
+	 * @param rand     the source of randomness
+	 * @param listener receives the progress
+	 * @return the number of the gates made
+	 * @throws InterruptedException
+	 */
+	public static int addExtraGates( Grid grid, int gates, SplittableRandom rand, MazeListener listener )
+			throws InterruptedException {
+		if( gates <= 0 || grid.rows < 3 || grid.cols < 3 ) return 0;
+		return new GateSampler( grid ).addGates( gates, rand, listener );
+	}
+
+
+	/**
+	 * Makes the percentage of the possible gates, see <code>addExtraGates</code>.
+	 *
+	 * @param grid     the labyrinth grid
+	 * @param percent  the share of the possible gates to make, from 0 to 100
+	 * @param rand     the source of randomness
+	 * @param listener receives the progress
+	 * @return the number of the gates made
+	 * @throws InterruptedException
+	 */
+	public static int addExtraGatesPercent( Grid grid, double percent, SplittableRandom rand, MazeListener listener )
+			throws InterruptedException {
+		if( grid.rows < 3 || grid.cols < 3 ) return 0;
+		GateSampler sampler = new GateSampler( grid );
+		int gates = ( int ) Math.min( Math.round( sampler.count * percent / 100 ), sampler.count );
+		return sampler.addGates( gates, rand, listener );
+	}
+
+
+	/**
+	 * @return true if the right wall of the inner cell can become a gate
+	 */
+	private static boolean isRightGate( Grid grid, int cell ) {
+		boolean topBorder = grid.hasTopWall( cell ) ||
+				grid.hasRightWall( cell - grid.cols ) ||
+				grid.hasTopWall( cell + 1 );
+		boolean bottomBorder = grid.hasBottomWall( cell ) ||
+				grid.hasRightWall( cell + grid.cols ) ||
+				grid.hasBottomWall( cell + 1 );
+		return grid.hasRightWall( cell ) && topBorder && bottomBorder;
+	}
+
+
+	/**
+	 * @return true if the bottom wall of the inner cell can become a gate
+	 */
+	private static boolean isBottomGate( Grid grid, int cell ) {
+		boolean leftBorder = grid.hasLeftWall( cell ) ||
+				grid.hasBottomWall( cell - 1 ) ||
+				grid.hasLeftWall( cell + grid.cols );
+		boolean rightBorder = grid.hasRightWall( cell ) ||
+				grid.hasBottomWall( cell + 1 ) ||
+				grid.hasRightWall( cell + grid.cols );
+		return grid.hasBottomWall( cell ) && leftBorder && rightBorder;
+	}
+
+
+	/**
+	 * Sets the start and the goal cell in the maze.
+	 *
+	 * @param grid the labyrinth grid with at least two cells
+	 * @param rand the source of randomness
+	 * @param seed the seed the maze has been generated from
+	 * @return the maze with the random start and goal
+	 */
+	public static Maze setStartAndGoal( Grid grid, SplittableRandom rand, long seed ) {
+		int start = rand.nextInt( grid.size() );
+		int goal = rand.nextInt( grid.size() );
+		while( start == goal ) {
+			goal = rand.nextInt( grid.size() );
+		}
+		return new Maze( grid, start, goal, seed );
+	}
+
+	/**
+	 * The bitboards of the possible gates.
+	 */
+	private static final class GateSampler {
+		private final Grid grid;
+		private final int words;
+		private final long[] right;
+		private final long[] bottom;
+		private final long[] inner;
+
+		// The possible right gates in the first half, the bottom ones in the second
+		private final long[] possible;
+		private long count;
+
+
+		/**
+		 * Marks the possible gates of the grid.
+		 */
+		GateSampler( Grid grid ) {
+			this.grid = grid;
+			words = ( grid.size() + 63 ) >>> 6;
+			right = new long[ words ];
+			bottom = new long[ words ];
+			inner = new long[ words ];
+			possible = new long[ 2 * words ];
+			for( int row = 1; row < grid.rows - 1; row++ ) {
+				setBits( inner, grid.index( row, 1 ), grid.index( row, grid.cols - 1 ) );
+			}
+			mark();
+		}
+
+
+		int addGates( int gates, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+			int added = 0;
+			while( added < gates && count > 0 ) {
+				long[] picked = pick( ( int ) Math.min( gates - added, count ), rand );
+
+				// The i-th possible gate is made if its rank is picked
+				long rank = 0;
+				for( int i = 0; i < possible.length; i++ ) {
+					long bits = possible[ i ];
+					int size = Long.bitCount( bits );
+					long ranks = bits( picked, rank ) & ( ( size == 64 ) ? -1L : ( 1L << size ) - 1 );
+					rank += size;
+					for( ; ranks != 0; ranks &= ranks - 1 ) {
+						long rest = bits;
+						for( int k = Long.numberOfTrailingZeros( ranks ); k > 0; k-- ) {
+							rest &= rest - 1;
+						}
+						int cell = ( ( i % words ) << 6 ) + Long.numberOfTrailingZeros( rest );
+						if( makeGate( cell, i < words, listener ) ) added++;
+					}
+				}
+
+				// The first picked gate is always possible, so every pass makes one
+				if( added < gates ) mark();
+			}
+			return added;
+		}
+
+
+		/**
+		 * Robert Floyd's sampling: for each of the last <code>needed</code> ranks,
+		 * picks a random rank up to it, or the rank itself if that one is picked already.
+		 *
+		 * @return the bitset of the picked ranks of the possible gates
+		 */
+		private long[] pick( int needed, SplittableRandom rand ) {
+			long[] picked = new long[ ( int ) ( ( count + 63 ) >>> 6 ) ];
+			for( long j = count - needed; j < count; j++ ) {
+				long t = rand.nextLong( j + 1 );
+				if( ( picked[ ( int ) ( t >>> 6 ) ] & ( 1L << t ) ) != 0 ) t = j;
+				picked[ ( int ) ( t >>> 6 ) ] |= 1L << t;
+			}
+			return picked;
+		}
+
+
+		/**
+		 * Removes the wall if it still can become a gate.
+		 *
+		 * @return true if the gate has been made
+		 */
+		private boolean makeGate( int cell, boolean isRight, MazeListener listener ) throws InterruptedException {
+			if( isRight ) {
+				if( !isRightGate( grid, cell ) ) return false;
+				grid.removeRightWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell );
+			} else {
+				if( !isBottomGate( grid, cell ) ) return false;
+				grid.removeBottomWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, cell );
+			}
+			return true;
+		}
+
+
+		/**
+		 * Marks the possible gates by the current walls, see <code>isRightGate</code>
+		 * and <code>isBottomGate</code>, and counts them.
+		 */
+		private void mark() {
+			grid.readWalls( right, bottom );
+			int cols = grid.cols;
+			count = 0;
+			for( int i = 0; i < words; i++ ) {
+				long first = ( long ) i << 6;
+				long r = right[ i ];
+				long b = bottom[ i ];
+				long rightNext = bits( bottom, first + 1 );
+				long rightBelow = bits( right, first + cols );
+				possible[ i ] = inner[ i ] & r &
+						( bits( bottom, first - cols ) | bits( right, first - cols ) | bits( bottom, first - cols + 1 ) ) &
+						( b | rightBelow | rightNext );
+				possible[ words + i ] = inner[ i ] & b &
+						( bits( right, first - 1 ) | bits( bottom, first - 1 ) | bits( right, first + cols - 1 ) ) &
+						( r | rightNext | rightBelow );
+				count += Long.bitCount( possible[ i ] ) + Long.bitCount( possible[ words + i ] );
+			}
+		}
+
+
+		/**
+		 * @return 64 bits of the bitboard starting from the bit, the bits outside of it are set
+		 */
+		private static long bits( long[] board, long from ) {
+			int i = ( int ) ( from >> 6 );
+			int shift = ( int ) ( from & 63 );
+			long low = ( i >= 0 && i < board.length ) ? board[ i ] : -1L;
+			if( shift == 0 ) return low;
+			long high = ( i + 1 >= 0 && i + 1 < board.length ) ? board[ i + 1 ] : -1L;
+			return low >>> shift | high << ( 64 - shift );
+		}
+
+
+		/**
+		 * Sets the bits from the first one (inclusive) to the last one (exclusive).
+		 */
+		private static void setBits( long[] board, int from, int to ) {
+			for( int bit = from; bit < to; bit = ( bit | 63 ) + 1 ) {
+				int end = Math.min( to, ( bit | 63 ) + 1 );
+				board[ bit >>> 6 ] |= ( -1L >>> ( 64 - ( end - bit ) ) ) << bit;
+			}
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * The Sidewinder and the Binary Tree algorithms, which carve every row on its own.
+ * <p> For more information see
+ * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Maze algorithms</a>
+ * <p> Binary Tree opens either the right or the bottom wall of each cell at random.
+ * Sidewinder opens the right walls along a run of cells until it decides to end the run,
+ * then opens the bottom wall of one random cell of the run. The last row is a single corridor
+ * and the last column has only bottom passages, so every cell has exactly one way
+ * towards the bottom right corner and the maze is perfect.
+ * <p> A row changes only its own right and bottom walls, so any rows can be carved at once.
+ * The rows are split into blocks of 32, which take a whole number of wall words, so no two
+ * tasks ever modify the same word. The random generators of the blocks are split from
+ * the given one in advance, so the maze doesn't depend on the number of threads and
+ * is the same on the calling thread.
+ * <p> No memory besides the grid. The mazes are biased: long corridors along
+ * the last row and the last column, and no dead ends facing the bottom right corner.
+ */
+final class RowMazeMaker implements MazeGenerator {
+
+	// 32 rows of any width take a whole number of 64-bit words
+	private static final int BLOCK_ROWS = 32;
+
+	private final boolean sidewinder;
+
+
+	/**
+	 * @param sidewinder true for Sidewinder, false for Binary Tree
+	 */
+	RowMazeMaker( boolean sidewinder ) {
+		this.sidewinder = sidewinder;
+	}
+
+
+	@Override
+	public void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+		SplittableRandom[] rands = split( grid, rand );
+		for( int block = 0; block < rands.length; block++ ) {
+			carveRows( grid, block * BLOCK_ROWS, Math.min( ( block + 1 ) * BLOCK_ROWS, grid.rows ), rands[ block ],
+					listener );
+		}
+	}
+
+
+	@Override
+	public void carve( Grid grid, SplittableRandom rand, ForkJoinPool pool ) {
+		pool.invoke( new Carving( grid, split( grid, rand ), 0, ( grid.rows + BLOCK_ROWS - 1 ) / BLOCK_ROWS ) );
+	}
+
+
+	private static SplittableRandom[] split( Grid grid, SplittableRandom rand ) {
+		SplittableRandom[] rands = new SplittableRandom[ ( grid.rows + BLOCK_ROWS - 1 ) / BLOCK_ROWS ];
+		for( int block = 0; block < rands.length; block++ ) {
+			rands[ block ] = rand.split();
+		}
+		return rands;
+	}
+
+
+	/**
+	 * Carves the rows from the top one (inclusive) to the bottom one (exclusive).
+	 * The random bits are taken from the generator 64 at a time.
+	 */
+	private void carveRows( Grid grid, int top, int bottom, SplittableRandom rand, MazeListener listener )
+			throws InterruptedException {
+		long bits = 0;
+		int bitsLeft = 0;
+		for( int row = top; row < bottom; row++ ) {
+			boolean lastRow = row == grid.rows - 1;
+			int first = grid.index( row, 0 );
+			int last = first + grid.cols - 1;
+			int runStart = first;
+			for( int cell = first; cell <= last; cell++ ) {
+				boolean right;
+				if( lastRow || cell == last ) {
+					right = cell != last;
+				} else {
+					if( bitsLeft == 0 ) {
+						bits = rand.nextLong();
+						bitsLeft = 64;
+					}
+					right = ( bits & 1 ) != 0;
+					bits >>>= 1;
+					bitsLeft--;
+				}
+
+				if( right ) {
+					grid.removeRightWall( cell );
+					listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell );
+				} else if( !lastRow ) {
+					int down = sidewinder ? runStart + rand.nextInt( cell - runStart + 1 ) : cell;
+					grid.removeBottomWall( down );
+					listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, down );
+					runStart = cell + 1;
+				}
+				listener.onEvent( MazeEvent.CARVE, cell );
+			}
+		}
+	}
+
+
+	/**
+	 * Carves the blocks of rows, splitting them in halves between the workers.
+	 */
+	@SuppressWarnings( "serial" )
+	private final class Carving extends RecursiveAction {
+		private final Grid grid;
+		private final SplittableRandom[] rands;
+		private final int from;
+		private final int to;
+
+
+		Carving( Grid grid, SplittableRandom[] rands, int from, int to ) {
+			this.grid = grid;
+			this.rands = rands;
+			this.from = from;
+			this.to = to;
+		}
+
+
+		@Override
+		protected void compute() {
+			if( to - from > 1 ) {
+				int middle = ( from + to ) >>> 1;
+				invokeAll( new Carving( grid, rands, from, middle ), new Carving( grid, rands, middle, to ) );
+				return;
+			}
+			try {
+				carveRows( grid, from * BLOCK_ROWS, Math.min( to * BLOCK_ROWS, grid.rows ), rands[ from ],
+						MazeListener.SILENT );
+			} catch( InterruptedException e ) {
+				throw new AssertionError( e );
+			}
+		}
+	}
+}
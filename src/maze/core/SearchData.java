@@ -0,0 +1,68 @@
+package maze.core;
+
+import java.util.Arrays;
+
+
+/**
+ * The reusable data of a search: movement costs, parents,
+ * the open set and the state of every item.
+ * <p> The state is a stamp of the search the item was last reached in:
+ * <code>stamp</code> if it has been reached, <code>stamp + 1</code> if it
+ * has been closed, anything less if the current search hasn't reached it.
+ * So starting a new search is O(1) instead of clearing the arrays;
+ * they are cleared only when the stamp overflows.
+ * <p> The costs and the parents are valid only for the reached items.
+ */
+final class SearchData {
+	final int[] g;
+	final int[] parent;
+	final IndexedHeap openSet;
+	private final int[] stamps;
+	private int stamp = 2;
+
+
+	/**
+	 * @param capacity the number of items, e.g. cells
+	 */
+	SearchData( int capacity ) {
+		g = new int[ capacity ];
+		parent = new int[ capacity ];
+		openSet = new IndexedHeap( capacity );
+		stamps = new int[ capacity ];
+	}
+
+
+	/**
+	 * Forgets the previous search and resets the counters of the open set.
+	 * Costs O(1) plus the size of the open set left by it.
+	 */
+	void reset() {
+		openSet.clear();
+		openSet.resetCounters();
+		if( stamp > Integer.MAX_VALUE - 4 ) {
+			Arrays.fill( stamps, 0 );
+			stamp = 0;
+		}
+		stamp += 2;
+	}
+
+
+	boolean isReached( int item ) {
+		return stamps[ item ] >= stamp;
+	}
+
+
+	boolean isClosed( int item ) {
+		return stamps[ item ] == stamp + 1;
+	}
+
+
+	void reach( int item ) {
+		stamps[ item ] = stamp;
+	}
+
+
+	void close( int item ) {
+		stamps[ item ] = stamp + 1;
+	}
+}
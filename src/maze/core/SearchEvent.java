@@ -0,0 +1,47 @@
+package maze.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The Flight Recorder event of a single search, see <code>Metrics</code>.
+ */
+@Name( "maze.Search" )
+@Label( "Maze Search" )
+@Category( "Maze" )
+@Description( "A shortest path search" )
+final class SearchEvent extends jdk.jfr.Event {
+	@Label( "Mode" )
+	String mode;
+
+	@Label( "Rows" )
+	int rows;
+
+	@Label( "Columns" )
+	int cols;
+
+	@Label( "Start" )
+	int start;
+
+	@Label( "Goal" )
+	int goal;
+
+	@Label( "Path Length" )
+	@Description( "-1 if there is no path" )
+	int pathLength;
+
+	@Label( "Expanded" )
+	int expanded;
+
+	@Label( "Pushes" )
+	int pushes;
+
+	@Label( "Decreases" )
+	int decreases;
+
+	@Label( "Max Open Set" )
+	int maxOpenSet;
+}
@@ -0,0 +1,40 @@
+package maze.core;
+
+import java.util.function.Function;
+
+
+/**
+ * The available pathfinding algorithms.
+ */
+public enum SearchMode {
+	A_STAR( "A*", grid -> new AStarFinder( grid, null ) ),
+	LANDMARKS( "A* with landmarks", grid -> new AStarFinder( grid, new Landmarks( grid, Landmarks.DEFAULT_COUNT ) ) ),
+	BIDIRECTIONAL( "Bidirectional A*", BidirectionalAStar::new ),
+	JUNCTION_GRAPH( "Junction graph", JunctionGraph::new ),
+	HIERARCHICAL( "Hierarchical A*", grid -> new ClusterGraph( grid, ClusterGraph.DEFAULT_SIZE ) );
+
+	private final String title;
+	private final Function<Grid, PathFinder> factory;
+
+
+	SearchMode( String title, Function<Grid, PathFinder> factory ) {
+		this.title = title;
+		this.factory = factory;
+	}
+
+
+	/**
+	 * Creates a new path finder for the grid.
+	 *
+	 * @param grid the labyrinth to be solved
+	 */
+	public PathFinder create( Grid grid ) {
+		return factory.apply( grid );
+	}
+
+
+	@Override
+	public String toString() {
+		return title;
+	}
+}
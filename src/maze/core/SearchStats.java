@@ -0,0 +1,56 @@
+package maze.core;
+
+
+/**
+ * The counters of a single search.
+ * <p> The open set counts its own operations with plain fields,
+ * so the search itself doesn't pay for the statistics.
+ */
+public final class SearchStats {
+	public static final SearchStats NONE = new SearchStats( 0, 0, 0, 0 );
+
+	/** The number of the nodes taken from the open set */
+	public final int expanded;
+
+	/** The number of the nodes added to the open set */
+	public final int pushes;
+
+	/** The number of the nodes reopened with a shorter path */
+	public final int decreases;
+
+	/** The largest size of the open set, the sum of both for two searches */
+	public final int maxOpenSet;
+
+
+	public SearchStats( int expanded, int pushes, int decreases, int maxOpenSet ) {
+		this.expanded = expanded;
+		this.pushes = pushes;
+		this.decreases = decreases;
+		this.maxOpenSet = maxOpenSet;
+	}
+
+
+	/**
+	 * @return the counters of the open sets since their last reset
+	 */
+	static SearchStats of( IndexedHeap... openSets ) {
+		int expanded = 0;
+		int pushes = 0;
+		int decreases = 0;
+		int maxOpenSet = 0;
+		for( IndexedHeap openSet : openSets ) {
+			expanded += openSet.pops();
+			pushes += openSet.pushes();
+			decreases += openSet.decreases();
+			maxOpenSet += openSet.maxSize();
+		}
+		return new SearchStats( expanded, pushes, decreases, maxOpenSet );
+	}
+
+
+	@Override
+	public String toString() {
+		return "expanded " + expanded + ", pushes " + pushes + ", decreases " + decreases +
+				", max open set " + maxOpenSet;
+	}
+}
@@ -0,0 +1,51 @@
+package maze.core;
+
+
+/**
+ * The predefined test maps.
+ * <p> All of them are open fields with a few walls, which makes them
+ * the worst cases for the open set of A*.
+ */
+public abstract class TestMaps {
+
+	/**
+	 * The smallest grid the maps fit into with <code>scale = 1</code>.
+	 */
+	public static final int MIN_SIZE = 25;
+
+	/**
+	 * The number of the maps.
+	 */
+	public static final int COUNT = 3;
+
+
+	/**
+	 * Builds one of the test maps in the existing grid.
+	 *
+	 * @param grid      the grid, at least <code>MIN_SIZE * scale</code> in both dimensions
+	 * @param mapNumber the number of the map between 1 and <code>COUNT</code>
+	 * @param scale     the multiplier of all the map coordinates
+	 * @return the map with its start and goal
+	 */
+	public static Maze build( Grid grid, int mapNumber, int scale ) {
+		grid.clearWalls();
+		switch( mapNumber ) {
+			case 1: // Only start and goal present on this map
+				break;
+			case 2: // ~shape: '|'
+				for( int row = 10 * scale; row < 20 * scale; row++ ) {
+					grid.addRightWall( grid.index( row, 15 * scale - 1 ) );
+				}
+				break;
+			case 3: // ~shape: '_____|'
+				for( int row = 13 * scale; row < 16 * scale; row++ ) {
+					grid.addRightWall( grid.index( row, 21 * scale - 1 ) );
+				}
+				for( int col = 7 * scale; col < 21 * scale; col++ ) {
+					grid.addBottomWall( grid.index( 16 * scale - 1, col ) );
+				}
+				break;
+		}
+		return new Maze( grid, grid.index( 16 * scale - 1, 7 * scale ), grid.index( 16 * scale - 1, 23 * scale ), 0 );
+	}
+}
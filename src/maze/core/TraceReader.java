@@ -0,0 +1,218 @@
+package maze.core;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+
+/**
+ * Reads the binary trace written by <code>TraceWriter</code>.
+ * <p> The events are read one by one with <code>next()</code>,
+ * or all at once with <code>replay()</code>.
+ */
+public final class TraceReader implements Closeable {
+	private static final MazeEvent[] EVENTS = MazeEvent.values();
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	public final int rows;
+	public final int cols;
+	private final boolean snapshot;
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+	private boolean snapshotRead = false;
+
+	// The last read event
+	private MazeEvent event = null;
+	private int cell = 0;
+
+
+	/**
+	 * Opens the trace and reads its header.
+	 *
+	 * @param channel the source, it is closed along with the trace
+	 * @throws IOException if the data isn't a trace of the supported version
+	 */
+	public TraceReader( ReadableByteChannel channel ) throws IOException {
+		this.channel = channel;
+		buffer.flip();
+		if( !fill( TraceWriter.HEADER_SIZE ) ||
+				buffer.getInt() != TraceWriter.MAGIC ) {
+			throw new IOException( "Not a maze trace" );
+		}
+		byte version = buffer.get();
+		if( version != TraceWriter.VERSION ) {
+			throw new IOException( "Unsupported trace version: " + version );
+		}
+		snapshot = ( buffer.get() & TraceWriter.FLAG_SNAPSHOT ) != 0;
+		rows = buffer.getInt();
+		cols = buffer.getInt();
+		if( rows < 1 || cols < 1 ) {
+			throw new IOException( "Illegal maze size: " + rows + "x" + cols );
+		}
+	}
+
+
+	/**
+	 * @return true if the trace contains the walls of the grid
+	 */
+	public boolean hasSnapshot() {
+		return snapshot;
+	}
+
+
+	/**
+	 * Copies the snapshot of the walls into the grid, or resets the grid
+	 * if there is no snapshot. Must be called before reading the events.
+	 *
+	 * @param grid the grid of the same size as the traced one
+	 * @throws IOException
+	 */
+	public void readSnapshot( Grid grid ) throws IOException {
+		if( grid.rows != rows || grid.cols != cols ) {
+			throw new IllegalArgumentException( "The trace is made for " + rows + "x" + cols + " grid" );
+		}
+		snapshotRead = true;
+		if( !snapshot ) {
+			grid.reset();
+			return;
+		}
+		for( int i = 0; i < grid.wallWords(); i++ ) {
+			if( !fill( Long.BYTES ) ) throw new EOFException( "Truncated walls snapshot" );
+			grid.setWallWord( i, buffer.getLong() );
+		}
+	}
+
+
+	/**
+	 * Reads the next event.
+	 *
+	 * @return false if the trace has ended
+	 * @throws IOException
+	 */
+	public boolean next() throws IOException {
+		if( !snapshotRead ) {
+			skipSnapshot();
+		}
+
+		long value = 0;
+		for( int shift = 0; ; shift += 7 ) {
+			if( !fill( 1 ) ) {
+				if( shift == 0 ) return false;
+				throw new EOFException( "Truncated event" );
+			}
+			if( shift > 63 ) throw new IOException( "Too long event" );
+			byte b = buffer.get();
+			value |= ( long ) ( b & 0x7F ) << shift;
+			if( b >= 0 ) break;
+		}
+
+		int zigzag = ( int ) ( value >>> TraceWriter.EVENT_BITS );
+		cell += ( zigzag >>> 1 ) ^ -( zigzag & 1 );
+		if( cell < 0 || cell >= ( long ) rows * cols ) throw new IOException( "Cell out of range: " + cell );
+		int ordinal = ( int ) ( value & ( ( 1 << TraceWriter.EVENT_BITS ) - 1 ) );
+		if( ordinal >= EVENTS.length ) throw new IOException( "Unknown event " + ordinal );
+		event = EVENTS[ ordinal ];
+		return true;
+	}
+
+
+	/**
+	 * Skips the walls snapshot when only the events are needed.
+	 */
+	private void skipSnapshot() throws IOException {
+		snapshotRead = true;
+		if( !snapshot ) return;
+		long bytes = ( long ) Grid.words( rows, cols ) * Long.BYTES;
+		while( bytes > 0 ) {
+			if( !fill( 1 ) ) throw new EOFException( "Truncated walls snapshot" );
+			int skipped = ( int ) Math.min( bytes, buffer.remaining() );
+			buffer.position( buffer.position() + skipped );
+			bytes -= skipped;
+		}
+	}
+
+
+	public MazeEvent event() {
+		return event;
+	}
+
+
+	public int cell() {
+		return cell;
+	}
+
+
+	/**
+	 * Replays the whole trace: restores the walls of the grid (unless
+	 * <code>readSnapshot()</code> has already been called), applies
+	 * the wall removals to it and passes every event to the listener.
+	 *
+	 * @param grid     the grid of the same size as the traced one
+	 * @param listener receives the events, e.g. to draw them at a custom speed
+	 * @return the number of the replayed events
+	 * @throws IOException
+	 * @throws InterruptedException if the listener has stopped the replay
+	 */
+	public long replay( Grid grid, MazeListener listener ) throws IOException, InterruptedException {
+		if( !snapshotRead ) {
+			readSnapshot( grid );
+		}
+		long events = 0;
+		while( next() ) {
+			if( event == MazeEvent.REMOVE_RIGHT_WALL ) {
+				grid.removeRightWall( cell );
+			} else if( event == MazeEvent.REMOVE_BOTTOM_WALL ) {
+				grid.removeBottomWall( cell );
+			}
+			listener.onEvent( event, cell );
+			events++;
+		}
+		return events;
+	}
+
+
+	/**
+	 * Compares the events of two traces, e.g. made by two versions of a solver.
+	 * The walls snapshots aren't compared.
+	 *
+	 * @return the number of the first different event, or -1 if the traces are equal
+	 * (0 if the traces are made for grids of different sizes)
+	 * @throws IOException
+	 */
+	public static long firstDifference( TraceReader a, TraceReader b ) throws IOException {
+		if( a.rows != b.rows || a.cols != b.cols ) return 0;
+		for( long i = 0; ; i++ ) {
+			boolean hasA = a.next();
+			boolean hasB = b.next();
+			if( !hasA && !hasB ) return -1;
+			if( hasA != hasB || a.event != b.event || a.cell != b.cell ) return i;
+		}
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+
+	/**
+	 * Makes sure that at least <code>bytes</code> bytes are buffered.
+	 *
+	 * @return false if the channel has ended earlier
+	 */
+	private boolean fill( int bytes ) throws IOException {
+		if( buffer.remaining() >= bytes ) return true;
+		buffer.compact();
+		while( buffer.position() < bytes ) {
+			if( channel.read( buffer ) < 0 ) {
+				buffer.flip();
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+}
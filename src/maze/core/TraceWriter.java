@@ -0,0 +1,123 @@
+package maze.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+
+/**
+ * Records the events of the maze engine as a compact binary trace.
+ * <p> The trace starts with a header:
+ * <ul>
+ * <li>magic <code>"MZTR"</code> and the version byte;</li>
+ * <li>the flags byte, bit 0 means the walls snapshot is present;</li>
+ * <li>the number of rows and columns (big-endian ints);</li>
+ * <li>the snapshot, if any: <code>Grid.wallWords()</code> big-endian longs.</li>
+ * </ul>
+ * <p> Then every event takes one unsigned LEB128 varint:
+ * <code>zigzag(cell - previousCell) &lt;&lt; 4 | event.ordinal()</code>.
+ * Most events are next to the previous one, so they fit in a single byte.
+ * <p> The events are buffered and written to the channel in large blocks.
+ */
+public final class TraceWriter implements MazeListener, Closeable {
+	static final int MAGIC = 0x4D5A5452; // "MZTR"
+	static final byte VERSION = 1;
+	static final byte FLAG_SNAPSHOT = 1;
+	static final int HEADER_SIZE = Integer.BYTES + 2 * Byte.BYTES + 2 * Integer.BYTES;
+	static final int EVENT_BITS = 4;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_VARINT_SIZE = 10;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+	private int previousCell = 0;
+	private long events = 0;
+
+
+	/**
+	 * Creates a new trace and writes its header.
+	 *
+	 * @param channel  the destination, it is closed along with the trace
+	 * @param grid     the grid the events refer to
+	 * @param snapshot true to save the current walls of the grid, so the trace
+	 *                 can be replayed without the generation events
+	 *                 (e.g. when recording only the pathfinding)
+	 * @throws IOException
+	 */
+	public TraceWriter( WritableByteChannel channel, Grid grid, boolean snapshot ) throws IOException {
+		this.channel = channel;
+		buffer.putInt( MAGIC );
+		buffer.put( VERSION );
+		buffer.put( snapshot ? FLAG_SNAPSHOT : 0 );
+		buffer.putInt( grid.rows );
+		buffer.putInt( grid.cols );
+		if( snapshot ) {
+			for( int i = 0; i < grid.wallWords(); i++ ) {
+				if( buffer.remaining() < Long.BYTES ) flush();
+				buffer.putLong( grid.getWallWord( i ) );
+			}
+		}
+	}
+
+
+	/**
+	 * Appends the event to the trace.
+	 *
+	 * @throws UncheckedIOException if the trace can't be written
+	 */
+	@Override
+	public void onEvent( MazeEvent event, int cell ) {
+		int delta = cell - previousCell;
+		previousCell = cell;
+		long value = ( ( ( long ) ( ( delta << 1 ) ^ ( delta >> 31 ) ) & 0xFFFFFFFFL ) << EVENT_BITS ) | event.ordinal();
+
+		if( buffer.remaining() < MAX_VARINT_SIZE ) {
+			try {
+				flush();
+			} catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+		}
+		while( ( value & ~0x7FL ) != 0 ) {
+			buffer.put( ( byte ) ( value | 0x80 ) );
+			value >>>= 7;
+		}
+		buffer.put( ( byte ) value );
+		events++;
+	}
+
+
+	/**
+	 * @return the number of events written so far
+	 */
+	public long events() {
+		return events;
+	}
+
+
+	/**
+	 * Writes all the buffered data to the channel.
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while( buffer.hasRemaining() ) {
+			channel.write( buffer );
+		}
+		buffer.clear();
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package maze.core;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Wilson's algorithm: a uniform spanning tree by loop-erased random walks.
+ * <p> For more information see
+ * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Maze algorithms</a>
+ * <p> The tree starts from a random cell. From every cell not in the tree yet,
+ * a random walk goes on until it hits the tree, remembering the last direction
+ * it has left each cell in. Following the remembered directions from the first cell
+ * skips all the loops of the walk, and that path is added to the tree.
+ * <p> Every perfect maze of the grid is equally likely, unlike with the other algorithms.
+ * The first walks wander long before they find the small tree, so it is the slowest one.
+ * Takes 1 byte per cell plus a bitset.
+ */
+final class WilsonMazeMaker implements MazeGenerator {
+
+	@Override
+	public void carve( Grid grid, SplittableRandom rand, MazeListener listener ) throws InterruptedException {
+		byte[] exit = new byte[ grid.size() ];
+		long[] inTree = new long[ ( grid.size() + 63 ) >>> 6 ];
+
+		int root = rand.nextInt( grid.size() );
+		inTree[ root >>> 6 ] |= 1L << root;
+		listener.onEvent( MazeEvent.CARVE, root );
+
+		for( int first = 0; first < grid.size(); first++ ) {
+			int cell = first;
+			while( !isInTree( inTree, cell ) ) {
+				byte direction = randomDirection( grid, cell, rand );
+				exit[ cell ] = direction;
+				cell = grid.neighbor( cell, direction );
+				if( !isInTree( inTree, cell ) ) listener.onEvent( MazeEvent.MARK, cell );
+			}
+
+			// The last exits lead along the walk without its loops
+			for( cell = first; !isInTree( inTree, cell ); cell = grid.neighbor( cell, exit[ cell ] ) ) {
+				inTree[ cell >>> 6 ] |= 1L << cell;
+				removeWall( grid, cell, exit[ cell ], listener );
+				listener.onEvent( MazeEvent.CARVE, cell );
+			}
+		}
+	}
+
+
+	private static boolean isInTree( long[] inTree, int cell ) {
+		return ( inTree[ cell >>> 6 ] & ( 1L << cell ) ) != 0;
+	}
+
+
+	/**
+	 * @return a random direction to a neighbor inside the grid
+	 */
+	private static byte randomDirection( Grid grid, int cell, SplittableRandom rand ) {
+		int row = grid.row( cell );
+		int col = grid.col( cell );
+		while( true ) {
+			byte direction = ( byte ) rand.nextInt( 4 );
+			switch( direction ) {
+				case Grid.UP:
+					if( row > 0 ) return direction;
+					break;
+				case Grid.LEFT:
+					if( col > 0 ) return direction;
+					break;
+				case Grid.RIGHT:
+					if( col < grid.cols - 1 ) return direction;
+					break;
+				default:
+					if( row < grid.rows - 1 ) return direction;
+					break;
+			}
+		}
+	}
+
+
+	private static void removeWall( Grid grid, int cell, byte direction, MazeListener listener )
+			throws InterruptedException {
+		switch( direction ) {
+			case Grid.UP:
+				grid.removeBottomWall( cell - grid.cols );
+				listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, cell - grid.cols );
+				break;
+			case Grid.LEFT:
+				grid.removeRightWall( cell - 1 );
+				listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell - 1 );
+				break;
+			case Grid.RIGHT:
+				grid.removeRightWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_RIGHT_WALL, cell );
+				break;
+			default:
+				grid.removeBottomWall( cell );
+				listener.onEvent( MazeEvent.REMOVE_BOTTOM_WALL, cell );
+				break;
+		}
+	}
+}